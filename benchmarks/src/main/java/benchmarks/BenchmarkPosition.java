@@ -0,0 +1,24 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+
+/**
+ * Positions the benchmarks are run against
+ */
+public enum BenchmarkPosition {
+    START(Fen.START_POSITION),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"),
+    CHECKMATE("r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4"),
+    STALEMATE("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+
+    private final String fen;
+
+    BenchmarkPosition(String fen) {
+        this.fen = fen;
+    }
+
+    public ChessGame load() {
+        return Fen.load(fen);
+    }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON so releases can be compared.
+ * <p>
+ * Usage: {@code BenchmarkRunner [--gc] [regex]}. {@code --gc} adds the allocation
+ * profiler (same as JMH's {@code -prof gc}), and the regex selects benchmarks by name.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        boolean profileAllocations = false;
+        String include = ".*Benchmark.*";
+        for (String arg : args) {
+            if (arg.equals("--gc")) {
+                profileAllocations = true;
+            } else {
+                include = arg;
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(profileAllocations ? "jmh-result-gc.json" : "jmh-result.json");
+        if (profileAllocations) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
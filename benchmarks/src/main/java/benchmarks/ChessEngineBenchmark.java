@@ -0,0 +1,87 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game state checks, measured over every piece of the side to move
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessEngineBenchmark {
+
+    @Param
+    public BenchmarkPosition position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private ChessGame.TeamColor side;
+    private final List<ChessPosition> squares = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.load();
+        board = game.getBoard();
+        side = game.getTeamTurn();
+        squares.clear();
+        for (int row = 1; row <= 8; ++row) {
+            for (int col = 1; col <= 8; ++col) {
+                ChessPosition square = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(square);
+                if (piece != null && piece.getTeamColor() == side) {
+                    squares.add(square);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (ChessPosition square : squares) {
+            blackhole.consume(board.getPiece(square).pieceMoves(board, square));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : squares) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public void legalMoves(Blackhole blackhole) {
+        for (ChessPosition square : squares) {
+            blackhole.consume(game.legalMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(side);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(side);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(side);
+    }
+
+    @Benchmark
+    public ChessGame.GameStatus evaluateStatus() {
+        return game.evaluateStatus();
+    }
+}
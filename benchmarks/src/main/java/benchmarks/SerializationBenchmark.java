@@ -0,0 +1,56 @@
+package benchmarks;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trips of a ChessGame, configured the way SqlDataAccess stores and lists games
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({"START", "MIDDLEGAME"})
+    public BenchmarkPosition position;
+
+    private final Gson writer = new Gson();
+    private final Gson reader = new GsonBuilder().enableComplexMapKeySerialization().create();
+    private ChessGame game;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.load();
+        json = writer.toJson(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return writer.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return reader.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return reader.fromJson(writer.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public int roundTripThenValidate() {
+        // listGames hands back deserialized games, so the first query also pays for rebuilding the board index
+        ChessGame copy = reader.fromJson(writer.toJson(game), ChessGame.class);
+        return copy.isInCheck(copy.getTeamTurn()) ? 1 : 0;
+    }
+}
@@ -0,0 +1,26 @@
+package benchmarks;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BenchmarkPositionTest {
+
+    @Test
+    public void load_PositionsAreInTheStateTheirNamesSay() {
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, BenchmarkPosition.START.load().evaluateStatus());
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, BenchmarkPosition.MIDDLEGAME.load().evaluateStatus());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, BenchmarkPosition.CHECKMATE.load().evaluateStatus());
+        assertEquals(ChessGame.GameStatus.STALEMATE, BenchmarkPosition.STALEMATE.load().evaluateStatus());
+    }
+
+    @Test
+    public void load_GivesIndependentGames() {
+        ChessGame first = BenchmarkPosition.MIDDLEGAME.load();
+        ChessGame second = BenchmarkPosition.MIDDLEGAME.load();
+        assertNotSame(first, second);
+        assertNotSame(first.getBoard(), second.getBoard());
+        assertEquals(first, second);
+    }
+}
@@ -27,7 +27,7 @@ public class PrintBoard {
             // Adjust column printing order based on the player's color
             for (int col = isBlack ? 1 : 8; isBlack ? col <= 8 : col >= 1; col += isBlack ? 1 : -1) {
                 // Assuming ChessPosition constructor takes (row, column) in that order
-                ChessPosition position = new ChessPosition(row, col);
+                ChessPosition position = ChessPosition.of(row, col);
                 ChessPiece piece = board.getPiece(position);
 
                 // Alternate cell colors for better visibility
@@ -98,7 +98,7 @@ public class PrintBoard {
 
             // Adjust column printing order based on the player's color
             for (int col = isBlack ? 1 : 8; isBlack ? col <= 8 : col >= 1; col += isBlack ? 1 : -1) {
-                ChessPosition position = new ChessPosition(row, col);
+                ChessPosition position = ChessPosition.of(row, col);
                 ChessPiece piece = board.getPiece(position);
 
                 // Check if the current cell is a legal move end position
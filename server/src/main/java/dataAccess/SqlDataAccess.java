@@ -415,6 +415,7 @@ public class SqlDataAccess implements DataAccess {
                         Gson gson = new GsonBuilder().enableComplexMapKeySerialization().create();
                         String json = rs.getString("json");
                         ChessGame chessGame = gson.fromJson(json, ChessGame.class);
+                        chessGame.publishSnapshot();
                         game.setGame(chessGame);
                         gameList.add(game);
                     }
@@ -0,0 +1,263 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveResult;
+import chess.engine.OpeningBook;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import webSocketMessages.serverMessages.ServerMessage;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bot moves and analysis requests off the websocket threads.
+ * <p>
+ * Searches run on a fixed number of low-priority worker threads, fewer than the
+ * processors, with a bounded queue, so a burst of bot games waits its turn instead
+ * of slowing down human moves; when the queue is full the request is refused.
+ * Each game has at most one search queued or running and the queue is first come
+ * first served, so one game cannot crowd out the others. Each game also has a
+ * think-time bank that its bot moves draw on; once it is spent the bot plays
+ * shallow searches for the rest of the game. Positions in the opening book are
+ * answered from the book without searching or spending think time.
+ */
+public class BotScheduler {
+
+    /** How long a bot or analysis search may think about one move */
+    public static final long MOVE_MILLIS = 1_000L;
+    /** The total think time of the bot in one game */
+    public static final long GAME_MILLIS = 60_000L;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final ThreadPoolExecutor workers;
+    private final long moveMillis;
+    private final long gameMillis;
+    private final OpeningBook book;
+    // One pending search per game, with the think time its bot has left
+    private final ConcurrentHashMap<Integer, GameBudget> games = new ConcurrentHashMap<>();
+    // Each worker keeps its own search, so its tables are reused from move to move
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+
+    private static final class GameBudget {
+        long remainingMillis;
+        Future<?> pending;
+
+        GameBudget(long remainingMillis) {
+            this.remainingMillis = remainingMillis;
+        }
+    }
+
+    public BotScheduler() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), QUEUE_CAPACITY, MOVE_MILLIS, GAME_MILLIS,
+                sharedBook());
+    }
+
+    // The bots play without a book if it cannot be read, but the operator should know
+    private static OpeningBook sharedBook() {
+        OpeningBook book = OpeningBook.shared();
+        if (book.loadError() != null) {
+            System.err.println(book.loadError());
+        }
+        return book;
+    }
+
+    public BotScheduler(int threads, int queueCapacity, long moveMillis, long gameMillis, OpeningBook book) {
+        AtomicInteger count = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "bot-search-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.moveMillis = moveMillis;
+        this.gameMillis = gameMillis;
+        this.book = book;
+    }
+
+    /**
+     * Queues a move for the bot of a game if it is the bot's turn. Any analysis still
+     * pending for the game is cancelled, since the bot's move is what the game waits on.
+     *
+     * @return the queued search, or null if the bot is not to move or the queue is full
+     * (the players have been told)
+     */
+    public Future<?> scheduleBotMove(int gameID, ConnectionManager manager) throws IOException {
+        ChessGame.TeamColor botColor = manager.getBotColor();
+        if (botColor == null || manager.isGameOver() || manager.checkTurn() != botColor) {
+            return null;
+        }
+        GameBudget budget = games.computeIfAbsent(gameID, id -> new GameBudget(gameMillis));
+        synchronized (budget) {
+            if (budget.pending != null) {
+                budget.pending.cancel(true);
+            }
+            ChessGame game = manager.copyGame();
+            long thinkMillis = Math.min(moveMillis, budget.remainingMillis);
+            try {
+                budget.pending = workers.submit(() -> playBotMove(gameID, manager, game, thinkMillis));
+            } catch (RejectedExecutionException e) {
+                budget.pending = null;
+                var notification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
+                notification.setErrorMessage("The server is too busy for the bot to move, try again later");
+                manager.broadcast(null, notification);
+                return null;
+            }
+            return budget.pending;
+        }
+    }
+
+    /**
+     * Queues a search for the best move of the side to move, whose result is sent to
+     * the player who asked
+     *
+     * @return the queued search, or null if the game already has a search pending or
+     * the queue is full (the player has been told)
+     */
+    public Future<?> scheduleAnalysis(int gameID, ConnectionManager manager, String authToken) throws IOException {
+        GameBudget budget = games.computeIfAbsent(gameID, id -> new GameBudget(gameMillis));
+        synchronized (budget) {
+            if (budget.pending != null && !budget.pending.isDone()) {
+                var notification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
+                notification.setErrorMessage("Already thinking about this game");
+                manager.singleBroadcast(authToken, notification);
+                return null;
+            }
+            ChessGame game = manager.copyGame();
+            try {
+                budget.pending = workers.submit(() -> analyze(manager, authToken, game));
+            } catch (RejectedExecutionException e) {
+                budget.pending = null;
+                var notification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
+                notification.setErrorMessage("The server is too busy to analyse, try again later");
+                manager.singleBroadcast(authToken, notification);
+                return null;
+            }
+            return budget.pending;
+        }
+    }
+
+    /**
+     * Stops any search for a game and forgets its think time
+     */
+    public void cancel(int gameID) {
+        GameBudget budget = games.remove(gameID);
+        if (budget != null) {
+            synchronized (budget) {
+                if (budget.pending != null) {
+                    budget.pending.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the think time the bot of a game has left in milliseconds
+     */
+    public long remainingMillis(int gameID) {
+        GameBudget budget = games.get(gameID);
+        if (budget == null) {
+            return gameMillis;
+        }
+        synchronized (budget) {
+            return budget.remainingMillis;
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void playBotMove(int gameID, ConnectionManager manager, ChessGame game, long thinkMillis) {
+        ChessMove move = bookMove(game);
+        if (move == null) {
+            // With no time left, a shallow search still finds a legal and sensible move
+            SearchLimits limits = thinkMillis > 0 ? SearchLimits.time(thinkMillis) : SearchLimits.depth(2);
+            SearchResult result = searches.get().search(game, limits);
+            GameBudget budget = games.get(gameID);
+            if (budget != null) {
+                synchronized (budget) {
+                    budget.remainingMillis = Math.max(0L, budget.remainingMillis - result.elapsedNanos() / 1_000_000L);
+                }
+            }
+            move = result.bestMove();
+        }
+        if (Thread.currentThread().isInterrupted() || move == null) {
+            return;
+        }
+        try {
+            MoveResult moveResult = manager.makeBotMove(move, game.positionKey());
+            if (moveResult == null || !moveResult.valid()) {
+                return;
+            }
+            var gameNotification = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME);
+            gameNotification.setGame(manager.getGameState());
+            manager.broadcast(null, gameNotification);
+            var notification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
+            notification.setMessage(String.format("The bot made the move %s", moveText(move)));
+            manager.broadcast(null, notification);
+            if (moveResult.isGameOver()) {
+                var overNotification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
+                overNotification.setMessage(WebSocketHandler.gameOverMessage(moveResult, manager.checkTurn()));
+                manager.broadcast(null, overNotification);
+                games.remove(gameID);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not send the bot move of game " + gameID + ": " + e.getMessage());
+        }
+    }
+
+    private void analyze(ConnectionManager manager, String authToken, ChessGame game) {
+        int bookMove = book.bestMove(game);
+        SearchResult result = bookMove == Move.NONE ? searches.get().search(game, SearchLimits.time(moveMillis)) : null;
+        // Drop the answer if the position moved on or the player left in the meantime
+        if (Thread.currentThread().isInterrupted() || manager.checkKey() != game.positionKey()
+                || !manager.connections.containsKey(authToken)) {
+            return;
+        }
+        try {
+            var notification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
+            if (result == null) {
+                notification.setMessage(String.format("Book move: %s", moveText(Move.toChessMove(bookMove))));
+            } else if (result.bestMove() == null) {
+                notification.setMessage("There are no legal moves");
+            } else {
+                notification.setMessage(String.format("Best move: %s (%+.2f pawns, depth %d)",
+                        moveText(result.bestMove()), result.score() / 100.0, result.depth()));
+            }
+            manager.singleBroadcast(authToken, notification);
+        } catch (IOException e) {
+            System.err.println("Could not send an analysis: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return a move from the opening book, chosen at random by weight so the bot varies
+     * its openings, or null if the position is not in the book
+     */
+    private ChessMove bookMove(ChessGame game) {
+        int move = book.pick(game, ThreadLocalRandom.current());
+        return move == Move.NONE ? null : Move.toChessMove(move);
+    }
+
+    private static String moveText(ChessMove move) {
+        String text = squareText(move.getStartPosition().getRow(), move.getStartPosition().getColumn())
+                + " to " + squareText(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        return move.getPromotionPiece() == null ? text : text + " promoting to " + move.getPromotionPiece();
+    }
+
+    private static String squareText(int row, int col) {
+        return (char) ('a' + col - 1) + Integer.toString(row);
+    }
+}
@@ -3,7 +3,7 @@ package server.websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
-import chess.InvalidMoveException;
+import chess.MoveResult;
 import com.google.gson.Gson;
 import org.eclipse.jetty.websocket.api.Session;
 import webSocketMessages.serverMessages.ServerMessage;
@@ -16,10 +16,24 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ConnectionManager {
     public final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
     public ChessGame gameState;
-    public boolean gameOver;
-
+    // Set under the lock by the move that ends the game, read without it
+    private volatile boolean gameOver;
+    private volatile ChessGame.TeamColor botColor;
+
+    /**
+     * @return a copy of the game as of the last move, safe to serialize while another
+     * thread makes the next one
+     */
     public ChessGame getGameState() {
-        return gameState;
+        return gameState.snapshot().toGame();
+    }
+
+    /**
+     * @return an independent copy of the game with its move history, so a search on it
+     * sees repetitions; taken under the lock, so never in the middle of a move
+     */
+    public synchronized ChessGame copyGame() {
+        return new ChessGame(gameState);
     }
 
 
@@ -31,6 +45,17 @@ public class ConnectionManager {
         this.gameOver = gameOver;
     }
 
+    /**
+     * @return the color the server bot plays in this game, or null if there is no bot
+     */
+    public ChessGame.TeamColor getBotColor() {
+        return botColor;
+    }
+
+    public void setBotColor(ChessGame.TeamColor botColor) {
+        this.botColor = botColor;
+    }
+
     public ConnectionManager(ChessGame game) {
         gameState = game;
         gameOver = false;
@@ -44,23 +69,50 @@ public class ConnectionManager {
     public void remove(String authToken) {
         connections.remove(authToken);
     }
-    public boolean makeMove(ChessMove move, String authToken) throws InvalidMoveException, IOException {
+    /**
+     * @return the result of the move, or null if the game is already over (the sender
+     * has been told)
+     */
+    public synchronized MoveResult makeMove(ChessMove move, String authToken) throws IOException {
         if (gameOver) {
             var overNotification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
             overNotification.setErrorMessage("Can't move, game is over");
             singleBroadcast(authToken, overNotification);
-            return false;
+            return null;
         }
-        gameState.makeMove(move);
-        return true;
+        return tryMove(move);
+    }
+
+    /**
+     * Makes a move the bot found by searching a copy of the game
+     *
+     * @param positionKey the key of the position the bot searched
+     * @return the result of the move, or null if the game is over or has changed since
+     */
+    public synchronized MoveResult makeBotMove(ChessMove move, long positionKey) {
+        if (gameOver || gameState.positionKey() != positionKey) {
+            return null;
+        }
+        return tryMove(move);
+    }
+
+    // Ends the game with the move that ends it, so no later move can slip in before
+    // the players are told; a draw still leaves legal moves
+    private MoveResult tryMove(ChessMove move) {
+        MoveResult result = gameState.tryMove(move);
+        if (result.isGameOver()) {
+            gameOver = true;
+        }
+        return result;
     }
 
     public void broadcast(String excludeToken, ServerMessage message) throws IOException {
         var removeList = new ArrayList<Connection>();
+        String json = new Gson().toJson(message);
         for (var c : connections.values()) {
             if (c.session.isOpen()) {
                 if (!c.authToken.equals(excludeToken)) {
-                    c.send(new Gson().toJson(message));
+                    c.send(json);
                 }
             } else {
                 removeList.add(c);
@@ -84,19 +136,24 @@ public class ConnectionManager {
     }
 
     public void highlightMoves(String authToken, ChessPosition position) throws IOException {
-        Collection<ChessMove> moves = gameState.validMoves(position);
+        ChessGame game = gameState.snapshot().toGame();
+        Collection<ChessMove> moves = game.validMoves(position);
         var notification = new ServerMessage(ServerMessage.ServerMessageType.LOAD_MOVES);
         notification.setLegalMoves(moves);
-        notification.setGame(gameState);
+        notification.setGame(game);
         singleBroadcast(authToken, notification);
     }
 
     public boolean checkColor(ChessGame.TeamColor color) {
-        return gameState.getTeamTurn().equals(color);
+        return gameState.snapshot().getTeamTurn().equals(color);
     }
 
     public ChessGame.TeamColor checkTurn() {
-        return gameState.getTeamTurn();
+        return gameState.snapshot().getTeamTurn();
+    }
+
+    public long checkKey() {
+        return gameState.snapshot().getKey();
     }
 
     public void setWatcher(String authToken) {
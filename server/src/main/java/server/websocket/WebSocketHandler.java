@@ -4,6 +4,7 @@ import chess.*;
 import com.google.gson.Gson;
 import dataAccess.DataAccess;
 import dataAccess.DataAccessException;
+import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
@@ -20,6 +21,7 @@ public class WebSocketHandler {
     public final ConcurrentHashMap<Integer, ConnectionManager> connectionManagers = new ConcurrentHashMap<>();
     private DataAccess dataAccess;
     private boolean isWatcher;
+    private final BotScheduler botScheduler = new BotScheduler();
 
     public WebSocketHandler(DataAccess newDataAccess) {
         dataAccess = newDataAccess;
@@ -43,6 +45,8 @@ public class WebSocketHandler {
             case MAKE_MOVE -> makeMove(command.gameID, command.getPlayerColor(), command.getOldMove(), command.getNewMove(), command.getPromotionPiece(), command.getUsername(), command.getAuthString(), command.getMove());
             case RESIGN -> resign(command.gameID,command.getAuthString(), command.getPlayerColor());
             case HIGHLIGHT -> highlight(command.gameID, command.getAuthString(), command.getMessage());
+            case ADD_BOT -> addBot(command.gameID, command.getAuthString(), command.getPlayerColor(), session);
+            case ANALYZE -> analyze(command.gameID, command.getAuthString(), session);
             default -> {return;}
         }
     }
@@ -50,11 +54,80 @@ public class WebSocketHandler {
     private void highlight(int gameID, String authToken, String position) throws IOException {
         int col = Character.toUpperCase(position.charAt(0)) - 'A' + 1;
         int row = Character.getNumericValue(position.charAt(1));
-        ChessPosition highlightPosition = new ChessPosition(row, col);
+        ChessPosition highlightPosition = ChessPosition.of(row, col);
         connectionManagers.get(gameID).highlightMoves(authToken, highlightPosition);
     }
 
 
+    private void addBot(int gameID, String authToken, ChessGame.TeamColor color, Session session) throws IOException {
+        ConnectionManager manager = activeGame(gameID, session);
+        if (manager == null) {
+            return;
+        }
+        String error = null;
+        if (color == null) {
+            error = "Pick a color for the bot";
+        } else if (manager.getBotColor() != null) {
+            error = "The game already has a bot";
+        } else {
+            try {
+                if (seatTaken(gameID, color)) {
+                    error = String.format("%s is already taken", color);
+                }
+            } catch (DataAccessException e) {
+                error = e.getMessage();
+            }
+        }
+        if (error != null) {
+            sendError(session, error);
+            return;
+        }
+        manager.setBotColor(color);
+        var notification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
+        notification.setMessage(String.format("A bot joined the game as %s", color));
+        manager.broadcast(null, notification);
+        botScheduler.scheduleBotMove(gameID, manager);
+    }
+
+    private void analyze(int gameID, String authToken, Session session) throws IOException {
+        ConnectionManager manager = activeGame(gameID, session);
+        if (manager != null) {
+            botScheduler.scheduleAnalysis(gameID, manager, authToken);
+        }
+    }
+
+    /**
+     * @return the connections of a game that is still being played, or null if there is
+     * no such game (the sender has been told)
+     */
+    private ConnectionManager activeGame(int gameID, Session session) throws IOException {
+        ConnectionManager manager = connectionManagers.get(gameID);
+        if (manager == null) {
+            sendError(session, "Join the game first");
+            return null;
+        }
+        if (manager.isGameOver()) {
+            sendError(session, "The game is over");
+            return null;
+        }
+        return manager;
+    }
+
+    private boolean seatTaken(int gameID, ChessGame.TeamColor color) throws DataAccessException {
+        for (GameData game : dataAccess.listGames()) {
+            if (game.getGameID() == gameID) {
+                return (color == ChessGame.TeamColor.WHITE ? game.getWhiteUsername() : game.getBlackUsername()) != null;
+            }
+        }
+        throw new DataAccessException(404, "Error: Game not found");
+    }
+
+    private void sendError(Session session, String message) throws IOException {
+        var notification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
+        notification.setErrorMessage(message);
+        session.getRemote().sendString(new Gson().toJson(notification));
+    }
+
     private void resign(int gameId, String authToken, ChessGame.TeamColor color) throws IOException, DataAccessException {
         try {
             if (connectionManagers.get(gameId).isGameOver()) {
@@ -106,22 +179,16 @@ public class WebSocketHandler {
                 return;
             }
             dataAccess.isWatcher(username, gameId);
-            if (!connectionManagers.get(gameId).makeMove(move, authToken)) {
+            MoveResult result = connectionManagers.get(gameId).makeMove(move, authToken);
+            if (result == null) {
                 return;
             }
-            var gameNotification = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME);
-            gameNotification.setGame(connectionManagers.get(gameId).getGameState());
-            connectionManagers.get(gameId).broadcast(null, gameNotification);
-            var notification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
-            notification.setMessage(String.format("%s made the move %s to %s", username, oldMove, newMove));
-            connectionManagers.get(gameId).broadcast(authToken, notification);
-        } catch(InvalidMoveException exception) {
-            if (exception.getMessage().equals("Invalid Move")) {
+            if (!result.valid()) {
                 var notification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
                 notification.setErrorMessage("Invalid move");
                 connectionManagers.get(gameId).singleBroadcast(authToken, notification);
             }
-            else {
+            else if (result.isGameOver()) {
                 var notification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
                 notification.setMessage(String.format("%s made the move %s to %s", username, oldMove, newMove));
                 connectionManagers.get(gameId).broadcast(null, notification);
@@ -129,10 +196,19 @@ public class WebSocketHandler {
                 gameNotification.setGame(connectionManagers.get(gameId).getGameState());
                 connectionManagers.get(gameId).broadcast(null, gameNotification);
                 var overNotification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
-                overNotification.setMessage(exception.getMessage());
+                overNotification.setMessage(gameOverMessage(result, connectionManagers.get(gameId).checkTurn()));
                 connectionManagers.get(gameId).broadcast(null, overNotification);
                 endGame(gameId);
             }
+            else {
+                var gameNotification = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME);
+                gameNotification.setGame(connectionManagers.get(gameId).getGameState());
+                connectionManagers.get(gameId).broadcast(null, gameNotification);
+                var notification = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION);
+                notification.setMessage(String.format("%s made the move %s to %s", username, oldMove, newMove));
+                connectionManagers.get(gameId).broadcast(authToken, notification);
+                botScheduler.scheduleBotMove(gameId, connectionManagers.get(gameId));
+            }
         } catch (DataAccessException e) {
             var notification = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
             notification.setErrorMessage("You are an observer :(");
@@ -140,6 +216,17 @@ public class WebSocketHandler {
         }
 
     }
+    static String gameOverMessage(MoveResult result, ChessGame.TeamColor sideToMove) {
+        if (result.status() == ChessGame.GameStatus.STALEMATE) {
+            return "Stalemate, game over :(";
+        }
+        if (result.status() == ChessGame.GameStatus.DRAW) {
+            return "Draw, game over :(";
+        }
+        String winner = (sideToMove == ChessGame.TeamColor.WHITE) ? "Black" : "White";
+        return "Checkmate! " + winner + " wins!";
+    }
+
     private void redraw(int gameID, String authToken, String color) throws IOException {
         var notification = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME);
         notification.setGame(connectionManagers.get(gameID).getGameState());
@@ -224,6 +311,7 @@ public class WebSocketHandler {
 
     private void endGame(int gameID) {
         connectionManagers.get(gameID).setGameOver(true);
+        botScheduler.cancel(gameID);
     }
 
     private ChessMove createMove(String oldMove, String newMove, String promotionPiece)  {
@@ -234,7 +322,7 @@ public class WebSocketHandler {
         int newColumn = c - 'A' + 1;
         int newRow = Character.getNumericValue(newMove.charAt(1));
 
-        return new ChessMove(new ChessPosition(oldRow, oldColumn), new ChessPosition(newRow, newColumn), getPieceTypeFromString(promotionPiece));
+        return ChessMove.of(ChessPosition.of(oldRow, oldColumn), ChessPosition.of(newRow, newColumn), getPieceTypeFromString(promotionPiece));
 
     }
 
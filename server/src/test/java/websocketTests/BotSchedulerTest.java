@@ -0,0 +1,102 @@
+package websocketTests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.MoveResult;
+import chess.engine.OpeningBook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.websocket.BotScheduler;
+import server.websocket.ConnectionManager;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotSchedulerTest {
+
+    private BotScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new BotScheduler(1, 1, 200, 1_000, OpeningBook.shared());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void scheduleBotMove_PlaysMateAndEndsGame() throws Exception {
+        ConnectionManager manager = new ConnectionManager(Fen.load("k7/8/1K6/8/8/8/8/7R w - - 0 1"));
+        manager.setBotColor(ChessGame.TeamColor.WHITE);
+        Future<?> search = scheduler.scheduleBotMove(1, manager);
+        assertNotNull(search);
+        search.get(5, TimeUnit.SECONDS);
+        assertEquals(ChessGame.TeamColor.BLACK, manager.checkTurn());
+        assertTrue(manager.isGameOver());
+    }
+
+    @Test
+    public void scheduleBotMove_WaitsForBotTurnAndSpendsBudget() throws Exception {
+        ConnectionManager manager = new ConnectionManager(new ChessGame());
+        manager.setBotColor(ChessGame.TeamColor.BLACK);
+        assertNull(scheduler.scheduleBotMove(2, manager));
+
+        manager.setBotColor(ChessGame.TeamColor.WHITE);
+        scheduler.scheduleBotMove(2, manager).get(5, TimeUnit.SECONDS);
+        assertEquals(ChessGame.TeamColor.BLACK, manager.checkTurn());
+        assertFalse(manager.isGameOver());
+        assertTrue(scheduler.remainingMillis(2) < 1_000);
+    }
+
+    @Test
+    public void makeBotMove_RefusedOnceFiftyMoveDrawIsMade() {
+        ConnectionManager manager = new ConnectionManager(Fen.load("k7/8/1K6/8/8/8/8/7R w - - 99 80"));
+        MoveResult result = manager.makeBotMove(move(1, 8, 2, 8), manager.checkKey());
+        assertEquals(ChessGame.GameStatus.DRAW, result.status());
+        // Black still has legal moves, but the game ended with the move that drew it
+        assertTrue(manager.isGameOver());
+        assertNull(manager.makeBotMove(move(8, 1, 8, 2), manager.checkKey()));
+        assertEquals(ChessGame.TeamColor.BLACK, manager.checkTurn());
+    }
+
+    @Test
+    public void copyGame_KeepsMovesForRepetitions() {
+        ConnectionManager manager = new ConnectionManager(new ChessGame());
+        ChessMove[] shuffle = {move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7)};
+        for (ChessMove next : shuffle) {
+            assertTrue(manager.makeBotMove(next, manager.checkKey()).valid());
+        }
+        assertEquals(1, manager.copyGame().getBoard().repetitions());
+        assertEquals(0, manager.getGameState().getBoard().repetitions());
+    }
+
+    @Test
+    public void cancel_StopsSearchWithoutMoving() throws Exception {
+        ConnectionManager manager = new ConnectionManager(new ChessGame());
+        manager.setBotColor(ChessGame.TeamColor.WHITE);
+        BotScheduler slow = new BotScheduler(1, 1, 60_000, 60_000, OpeningBook.shared());
+        try {
+            Future<?> search = slow.scheduleBotMove(3, manager);
+            Thread.sleep(50);
+            slow.cancel(3);
+            assertThrows(CancellationException.class, () -> search.get(5, TimeUnit.SECONDS));
+            // Give the worker time to notice, then check it left the game alone
+            Thread.sleep(200);
+            assertEquals(ChessGame.TeamColor.WHITE, manager.checkTurn());
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+}
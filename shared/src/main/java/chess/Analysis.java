@@ -0,0 +1,52 @@
+package chess;
+
+import java.util.stream.Stream;
+
+/**
+ * The legal move count and status of one position, for checking stored positions in bulk
+ *
+ * @param fen        the position as given
+ * @param key        the position key (see {@link ChessGame#positionKey()}), or 0 if the
+ *                   FEN could not be read
+ * @param legalMoves the number of legal moves for the side to move, or -1 if the FEN
+ *                   could not be read
+ * @param status     the state of the game for the side to move, or null if the FEN could
+ *                   not be read
+ * @param error      why the FEN could not be read, or null
+ */
+public record Analysis(CharSequence fen, long key, int legalMoves, ChessGame.GameStatus status, String error) {
+
+    // One move list per worker thread, so analysing a position allocates only its board
+    private static final ThreadLocal<MoveList> MOVES = ThreadLocal.withInitial(MoveList::new);
+
+    /**
+     * @param fen a position in Forsyth-Edwards Notation
+     * @return the analysis of the position, or one holding the error if it is malformed
+     */
+    public static Analysis of(CharSequence fen) {
+        ChessGame game;
+        try {
+            game = Fen.load(fen);
+        } catch (IllegalArgumentException e) {
+            return new Analysis(fen, 0L, -1, null, e.getMessage());
+        }
+        MoveList moves = MOVES.get();
+        moves.clear();
+        MoveGenerator.generate(game.getBoard(), game.getTeamTurn(), moves);
+        ChessGame.GameStatus status = game.evaluateStatus(game.getTeamTurn(), !moves.isEmpty());
+        return new Analysis(fen, game.positionKey(), moves.size(), status, null);
+    }
+
+    /**
+     * Analyses positions in parallel. The result is lazy and keeps the order of the
+     * input for ordered terminal operations; it runs in the common fork-join pool, or
+     * in another pool if the terminal operation is started from a task in that pool.
+     * A malformed FEN gives an analysis holding the error rather than stopping the stream.
+     *
+     * @param fens positions in Forsyth-Edwards Notation
+     * @return one analysis per position
+     */
+    public static Stream<Analysis> analyze(Stream<? extends CharSequence> fens) {
+        return fens.parallel().map(Analysis::of);
+    }
+}
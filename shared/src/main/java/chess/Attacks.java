@@ -0,0 +1,236 @@
+package chess;
+
+/**
+ * Precomputed attack masks, indexed by square (see {@link Bitboards#square(int, int)}).
+ * Tables are built once when the class loads and shared by every board.
+ * <p>
+ * Sliding pieces use magic bitboards: the blockers on a square's relevant rays are
+ * multiplied by a per-square magic number, and the top bits of the product index a
+ * table holding the attack set for that blocker pattern.
+ */
+public class Attacks {
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // Found offline by random search over sparse 64-bit numbers; the tables are
+    // verified collision-free as they are filled.
+    private static final long[] ROOK_MAGICS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+            0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+            0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+            0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+            0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+            0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+            0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+            0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+            0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+            0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+            0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+            0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+            0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+            0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+            0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+            0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+            0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+            0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+            0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+            0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    /**
+     * Lookup data for one slider on one square
+     */
+    private static class Magic {
+        final long mask;
+        final long magic;
+        final int shift;
+        final long[] attacks;
+
+        Magic(long mask, long magic, int shift, long[] attacks) {
+            this.mask = mask;
+            this.magic = magic;
+            this.shift = shift;
+            this.attacks = attacks;
+        }
+
+        long attacks(long occupied) {
+            return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {-2, 1}, {-2, -1}};
+        int[][] kingSteps = {{1, -1}, {1, 0}, {1, 1}, {0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {-1, 1}};
+        for (int square = 0; square < 64; ++square) {
+            int row = Bitboards.row(square);
+            int col = Bitboards.column(square);
+            KNIGHT[square] = stepMask(row, col, knightSteps);
+            KING[square] = stepMask(row, col, kingSteps);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = stepMask(row, col, new int[][]{{1, -1}, {1, 1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = stepMask(row, col, new int[][]{{-1, -1}, {-1, 1}});
+        }
+        for (int square = 0; square < 64; ++square) {
+            ROOK[square] = buildMagic(square, ROOK_DIRECTIONS, ROOK_MAGICS[square]);
+            BISHOP[square] = buildMagic(square, BISHOP_DIRECTIONS, BISHOP_MAGICS[square]);
+        }
+        for (int a = 0; a < 64; ++a) {
+            for (int b = 0; b < 64; ++b) {
+                if (a == b) {
+                    continue;
+                }
+                long ends = Bitboards.bit(a) | Bitboards.bit(b);
+                if ((rook(a, 0L) & Bitboards.bit(b)) != 0) {
+                    BETWEEN[a][b] = rook(a, Bitboards.bit(b)) & rook(b, Bitboards.bit(a));
+                    LINE[a][b] = (rook(a, 0L) & rook(b, 0L)) | ends;
+                } else if ((bishop(a, 0L) & Bitboards.bit(b)) != 0) {
+                    BETWEEN[a][b] = bishop(a, Bitboards.bit(b)) & bishop(b, Bitboards.bit(a));
+                    LINE[a][b] = (bishop(a, 0L) & bishop(b, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    private static long stepMask(int row, int col, int[][] steps) {
+        long mask = 0L;
+        for (int[] step : steps) {
+            int toRow = row + step[0];
+            int toCol = col + step[1];
+            if (toRow > 0 && toRow < 9 && toCol > 0 && toCol < 9) {
+                mask |= Bitboards.bit(Bitboards.square(toRow, toCol));
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Walks each ray from the square until it leaves the board or hits a blocker.
+     * Only used to fill the magic tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int col = Bitboards.column(square) + direction[1];
+            while (row > 0 && row < 9 && col > 0 && col < 9) {
+                long bit = Bitboards.bit(Bitboards.square(row, col));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * @return the squares whose occupancy can change the attack set: every ray square
+     * except the last one before the edge
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int col = Bitboards.column(square) + direction[1];
+            while (row + direction[0] > 0 && row + direction[0] < 9 && col + direction[1] > 0 && col + direction[1] < 9) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static Magic buildMagic(int square, int[][] directions, long magic) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        boolean[] filled = new boolean[1 << bits];
+
+        // Enumerate every subset of the mask (Carry-Rippler)
+        long subset = 0L;
+        do {
+            long attacks = slidingAttacks(square, subset, directions);
+            int index = (int) ((subset * magic) >>> (64 - bits));
+            if (filled[index] && table[index] != attacks) {
+                throw new IllegalStateException("Bad magic number for square " + square);
+            }
+            filled[index] = true;
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        return new Magic(mask, magic, 64 - bits, table);
+    }
+
+    public static long rook(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    public static long bishop(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return ROOK[square].attacks(occupied) | BISHOP[square].attacks(occupied);
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the given square attacks diagonally
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared rank, file or diagonal,
+     * or 0 if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the full rank, file or diagonal through both squares,
+     * or 0 if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+}
@@ -0,0 +1,197 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard representation of a chessboard: one 64-bit word for every
+ * (color, piece type) pair plus occupancy words per color and for the whole board.
+ * <p>
+ * Square i maps to bit i, where i = (row - 1) * 8 + (column - 1), so the
+ * bottom-left square (1, 1) is bit 0 and the top-right square (8, 8) is bit 63.
+ * <p>
+ * The Zobrist key of the placement, a square list per color, the king squares and
+ * the sums of the {@link PieceSquareTables} values are kept up to date on every add
+ * and remove.
+ */
+public class Bitboards {
+
+    public static final int SQUARES = 64;
+
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private long occupied;
+    private long key;
+    // Material plus piece-square values, white minus black, and the game phase
+    private int middlegame;
+    private int endgame;
+    private int phase;
+
+    // Piece lists: the occupied squares of each color in no particular order, with the
+    // position of every square in its list so a removal can swap in the last entry
+    private final int[][] squares = new int[2][SQUARES];
+    private final int[] counts = new int[2];
+    private final int[] listIndex = new int[SQUARES];
+    private final int[] kingSquares = {-1, -1};
+
+    public static int square(int row, int column) {
+        return ((row - 1) << 3) | (column - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the squares holding pieces of the given color and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[index(color, type)];
+    }
+
+    /**
+     * @return the squares holding pieces of the given type, of either color
+     */
+    public long pieces(ChessPiece.PieceType type) {
+        return pieces[type.ordinal()] | pieces[6 + type.ordinal()];
+    }
+
+    /**
+     * @return the squares holding pieces of the given color
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * @return every occupied square
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * @return the number of pieces of the given color
+     */
+    public int pieceCount(ChessGame.TeamColor color) {
+        return counts[color.ordinal()];
+    }
+
+    /**
+     * @return the square of the index-th piece of the given color, for index below
+     * {@link #pieceCount(ChessGame.TeamColor)}
+     */
+    public int pieceSquare(ChessGame.TeamColor color, int index) {
+        return squares[color.ordinal()][index];
+    }
+
+    /**
+     * @return the square of the king of the given color (the lowest one if a hand-built
+     * board has several), or -1 if it has none
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement
+     */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * @return the middlegame material and piece-square score, white minus black
+     */
+    public int middlegame() {
+        return middlegame;
+    }
+
+    /**
+     * @return the endgame material and piece-square score, white minus black
+     */
+    public int endgame() {
+        return endgame;
+    }
+
+    /**
+     * @return the game phase of the material on the board, {@link PieceSquareTables#TOTAL_PHASE}
+     * at the start (more after promotions) down to 0 with only kings and pawns
+     */
+    public int phase() {
+        return phase;
+    }
+
+    void add(int square, ChessPiece piece) {
+        long bit = 1L << square;
+        int color = piece.getTeamColor().ordinal();
+        int index = index(piece.getTeamColor(), piece.getPieceType());
+        pieces[index] |= bit;
+        colors[color] |= bit;
+        occupied |= bit;
+        key ^= Zobrist.piece(piece, square);
+        middlegame += PieceSquareTables.middlegame(index, square);
+        endgame += PieceSquareTables.endgame(index, square);
+        phase += PieceSquareTables.phase(index);
+
+        listIndex[square] = counts[color];
+        squares[color][counts[color]++] = square;
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[color] = Long.numberOfTrailingZeros(pieces[index]);
+        }
+    }
+
+    void remove(int square, ChessPiece piece) {
+        long mask = ~(1L << square);
+        int color = piece.getTeamColor().ordinal();
+        int index = index(piece.getTeamColor(), piece.getPieceType());
+        pieces[index] &= mask;
+        colors[color] &= mask;
+        occupied &= mask;
+        key ^= Zobrist.piece(piece, square);
+        middlegame -= PieceSquareTables.middlegame(index, square);
+        endgame -= PieceSquareTables.endgame(index, square);
+        phase -= PieceSquareTables.phase(index);
+
+        int last = squares[color][--counts[color]];
+        squares[color][listIndex[square]] = last;
+        listIndex[last] = listIndex[square];
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[color] = pieces[index] == 0 ? -1 : Long.numberOfTrailingZeros(pieces[index]);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(pieces, 0L);
+        colors[0] = 0L;
+        colors[1] = 0L;
+        occupied = 0L;
+        key = 0L;
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        counts[0] = 0;
+        counts[1] = 0;
+        kingSquares[0] = -1;
+        kingSquares[1] = -1;
+    }
+
+    boolean samePlacement(Bitboards other) {
+        return Arrays.equals(pieces, other.pieces);
+    }
+}
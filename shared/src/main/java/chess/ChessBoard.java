@@ -9,14 +9,65 @@ import java.util.*;
  */
 public class ChessBoard {
 
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights that survive a move from or to each square: moving a king or
+    // rook, or capturing a rook on its home square, gives up the matching rights
+    private static final int[] CASTLING_KEPT = new int[Bitboards.SQUARES];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[Bitboards.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[Bitboards.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[Bitboards.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[Bitboards.square(8, 1)] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[Bitboards.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[Bitboards.square(8, 8)] &= ~BLACK_KINGSIDE;
+    }
+
     ChessPiece[][] piecePositions;
 
+    // Rules state, serialized with the board. A board built with addPiece has no castling
+    // rights; resetBoard and Fen.load set them.
+    int castlingRights;
+    int enPassantSquare = -1;
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+
+    // Bitboard index over piecePositions. It is transient so the serialized form stays the
+    // 8x8 array, and it is rebuilt lazily whenever piecePositions is replaced (resetBoard, Gson).
+    private transient Bitboards bitboards = new Bitboards();
+    private transient ChessPiece[][] indexedPositions;
+    private transient UndoStack undoStack = new UndoStack();
+
 
     public ChessBoard() {
         piecePositions = new ChessPiece[8][8];
         //piecePositionMap = new HashMap<>();
     }
 
+    /**
+     * Creates an independent copy of a board, including its rules state and the moves
+     * made on it, so the copy can unmake them and detect repetitions like the original
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        piecePositions = new ChessPiece[8][];
+        for (int row = 0; row < 8; ++row) {
+            piecePositions[row] = other.piecePositions[row].clone();
+        }
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        undoStack = new UndoStack(other.undoStack);
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -24,54 +75,320 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
+        Bitboards index = bitboards();
+        int square = Bitboards.square(position);
+        ChessPiece replaced = piecePositions[position.getRow()-1][position.getColumn()-1];
+        if (replaced != null) {
+            index.remove(square, replaced);
+        }
+        if (piece != null) {
+            index.add(square, piece);
+        }
         piecePositions[position.getRow()-1][position.getColumn()-1] = piece;
     }
 
+    /**
+     * Plays a move, including the rook move of a castle and the pawn taken en passant,
+     * and records it so it can be taken back with {@link #unmakeMove()}
+     *
+     * @param move the move to play
+     */
     public void movePiece(ChessMove move) {
-        if (move.getPromotionPiece() != null) {
-            getPiece(move.getStartPosition()).changeType(move.getPromotionPiece());
+        makeMove(move);
+    }
+
+    private void movePiece(int from, int to, ChessPiece.PieceType promotion) {
+        Bitboards index = bitboards();
+        ChessPiece piece = pieceAt(from);
+        ChessPiece captured = pieceAt(to);
+        if (captured != null) {
+            index.remove(to, captured);
+        }
+        index.remove(from, piece);
+        if (promotion != null) {
+            piece = ChessPiece.of(piece.getTeamColor(), promotion);
         }
-        ChessPosition startPos = move.getStartPosition();
-        ChessPosition endPos = move.getEndPosition();
-        ChessPiece piece = getPiece(startPos);
-        piecePositions[startPos.getRow() - 1][startPos.getColumn() - 1] = null;
-        piecePositions[endPos.getRow() - 1][endPos.getColumn() - 1] = piece;
+        index.add(to, piece);
+        piecePositions[from >>> 3][from & 7] = null;
+        piecePositions[to >>> 3][to & 7] = piece;
     }
 
-    public ChessPosition getPosition(ChessPiece piece) {
-        for (int row = 0; row < piecePositions.length; row++) {
-            for (int column = 0; column < piecePositions[row].length; column++) {
-                ChessPiece currentPiece = piecePositions[row][column];
-                if (currentPiece != null && currentPiece.equals(piece)) {
-                    return new ChessPosition(row + 1, column + 1);
+    private void setPieceAt(int square, ChessPiece piece) {
+        if (piece != null) {
+            bitboards().add(square, piece);
+        }
+        piecePositions[square >>> 3][square & 7] = piece;
+    }
+
+    private void removePieceAt(int square) {
+        ChessPiece piece = pieceAt(square);
+        if (piece != null) {
+            bitboards().remove(square, piece);
+            piecePositions[square >>> 3][square & 7] = null;
+        }
+    }
+
+    /**
+     * Plays a move and records what is needed to take it back with {@link #unmakeMove()}.
+     * The move is not checked for legality.
+     *
+     * @param move the move to play
+     */
+    public void makeMove(ChessMove move) {
+        makeMove(Move.fromChessMove(this, move));
+    }
+
+    /**
+     * Plays a packed move (see {@link Move}) and records what is needed to take it back
+     * with {@link #unmakeMove()}. The move is not checked for legality.
+     *
+     * @param move the move to play
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        ChessPiece piece = pieceAt(from);
+        int captureSquare = (flags == Move.EN_PASSANT) ? enPassantVictim(from, to) : to;
+        ChessPiece captured = pieceAt(captureSquare);
+        undoStack.push(move, piece, captured, packState(), getZobristKey());
+
+        if (flags == Move.EN_PASSANT) {
+            removePieceAt(captureSquare);
+        }
+        movePiece(from, to, Move.promotion(move));
+        if (flags == Move.KING_CASTLE) {
+            movePiece(to + 1, to - 1, null);
+        } else if (flags == Move.QUEEN_CASTLE) {
+            movePiece(to - 2, to + 1, null);
+        }
+
+        boolean irreversible = captured != null || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        enPassantSquare = -1;
+        if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) {
+            ++fullmoveNumber;
+        }
+        if (flags == Move.DOUBLE_PAWN_PUSH) {
+            int passed = (from + to) >>> 1;
+            // Only record the square if an enemy pawn could take there, so keys stay comparable
+            ChessGame.TeamColor them = MoveGenerator.opponent(piece.getTeamColor());
+            if ((Attacks.pawn(piece.getTeamColor(), passed) & bitboards().pieces(them, ChessPiece.PieceType.PAWN)) != 0) {
+                enPassantSquare = passed;
+            }
+        }
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(ChessMove)}, restoring any
+     * captured piece, the original piece of a promoted pawn, a castled rook and the
+     * castling rights, en passant square and halfmove clock
+     */
+    public void unmakeMove() {
+        if (undoStack.isEmpty()) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        int move = undoStack.move();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+
+        if (flags == Move.KING_CASTLE) {
+            movePiece(to - 1, to + 1, null);
+        } else if (flags == Move.QUEEN_CASTLE) {
+            movePiece(to + 1, to - 2, null);
+        }
+        // The piece on the destination differs from the one that moved after a promotion
+        removePieceAt(to);
+        setPieceAt(from, undoStack.moved());
+        setPieceAt((flags == Move.EN_PASSANT) ? enPassantVictim(from, to) : to, undoStack.captured());
+
+        int state = undoStack.state();
+        castlingRights = state & ALL_CASTLING;
+        enPassantSquare = ((state >>> 4) & 127) - 1;
+        halfmoveClock = state >>> 11;
+        if (undoStack.moved().getTeamColor() == ChessGame.TeamColor.BLACK) {
+            --fullmoveNumber;
+        }
+        undoStack.pop();
+    }
+
+    // The pawn taken en passant stands beside the capturing pawn, on the file it moves to
+    private static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    private int packState() {
+        return castlingRights | ((enPassantSquare + 1) << 4) | (halfmoveClock << 11);
+    }
+
+    /**
+     * @return the castling rights, a mask of {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE},
+     * {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    void setCastlingRights(int rights) {
+        castlingRights = rights & ALL_CASTLING;
+    }
+
+    /**
+     * @return the square a pawn may capture en passant on (see {@link Bitboards#square(int, int)}),
+     * or -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    void setEnPassantSquare(int square) {
+        enPassantSquare = square;
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    void setHalfmoveClock(int clock) {
+        halfmoveClock = clock;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and increased after
+     * each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    void setFullmoveNumber(int number) {
+        fullmoveNumber = number;
+    }
+
+    /**
+     * Counts earlier occurrences of the current position (same placement, castling rights,
+     * en passant square and side to move) among the moves made on this board since the
+     * last capture or pawn move. Only every second earlier position can match, since the
+     * other side was to move in the rest.
+     *
+     * @return how many times the current position occurred before
+     */
+    public int repetitions() {
+        long key = getZobristKey();
+        int size = undoStack.size();
+        int oldest = Math.max(0, size - halfmoveClock);
+        int count = 0;
+        for (int i = size - 2; i >= oldest; i -= 2) {
+            if (undoStack.key(i) == key) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of moves made on this board that can still be unmade
+     */
+    int historySize() {
+        return undoStack.size();
+    }
+
+    /**
+     * @return the index-th packed move made on this board, the oldest first
+     */
+    int historyMove(int index) {
+        return undoStack.move(index);
+    }
+
+    /**
+     * @return the bitboard index of this board, rebuilt first if the squares were replaced
+     */
+    public Bitboards bitboards() {
+        if (indexedPositions != piecePositions) {
+            if (bitboards == null) {
+                bitboards = new Bitboards();
+            }
+            bitboards.clear();
+            for (int row = 0; row < 8; row++) {
+                for (int column = 0; column < 8; column++) {
+                    ChessPiece piece = piecePositions[row][column];
+                    if (piece != null) {
+                        bitboards.add(Bitboards.square(row + 1, column + 1), piece);
+                    }
                 }
             }
+            indexedPositions = piecePositions;
+        }
+        return bitboards;
+    }
+
+    /**
+     * @return the lowest square holding a piece equal to piece (same color and type),
+     * or null if there is none
+     */
+    public ChessPosition getPosition(ChessPiece piece) {
+        if (piece == null) {
+            return null;
+        }
+        long candidates = bitboards().pieces(piece.getTeamColor(), piece.getPieceType());
+        for (; candidates != 0; candidates &= candidates - 1) {
+            int square = Long.numberOfTrailingZeros(candidates);
+            if (piece.equals(pieceAt(square))) {
+                return ChessPosition.of(square);
+            }
         }
         return null; // Piece not found
     }
 
     public ChessPosition getKingPosition(ChessGame.TeamColor team) {
-        for (int row = 0; row < piecePositions.length; row++) {
-            for (int column = 0; column < piecePositions[row].length; column++) {
-                ChessPiece currentPiece = piecePositions[row][column];
-                if (currentPiece != null && currentPiece.getPieceType() == ChessPiece.PieceType.KING && currentPiece.getTeamColor() == team) {
-                    return new ChessPosition(row + 1, column + 1);
-                }
-            }
+        int square = bitboards().kingSquare(team);
+        if (square < 0) {
+            return null; // King not found or something went wrong
         }
-        return null; // King not found or something went wrong
+        return ChessPosition.of(square);
     }
 
     public ChessPiece getKingPiece(ChessGame.TeamColor team) {
-        for (int row = 0; row < piecePositions.length; row++) {
-            for (int column = 0; column < piecePositions[row].length; column++) {
-                ChessPiece currentPiece = piecePositions[row][column];
-                if (currentPiece != null && currentPiece.getPieceType() == ChessPiece.PieceType.KING && currentPiece.getTeamColor() == team) {
-                    return currentPiece;
-                }
-            }
+        int square = bitboards().kingSquare(team);
+        if (square < 0) {
+            return null; // King not found
         }
-        return null; // King not found
+        return pieceAt(square);
+    }
+
+    /**
+     * Determines if any piece of a color attacks a square, whether or not moving there
+     * would be legal for it
+     *
+     * @param position the square to test
+     * @param byColor  the color of the attacking pieces
+     * @return True if a piece of byColor attacks position
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(Bitboards.square(position), byColor);
+    }
+
+    /**
+     * @param square  the square to test (see {@link Bitboards#square(int, int)})
+     * @param byColor which team's pieces to look for
+     * @return True if a piece of byColor attacks square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        Bitboards index = bitboards();
+        return MoveGenerator.isAttacked(index, square, index.occupied(), byColor);
+    }
+
+    /**
+     * @param square the square to look at (see {@link Bitboards#square(int, int)})
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece pieceAt(int square) {
+        return piecePositions[square >>> 3][square & 7];
     }
 
 
@@ -93,13 +410,10 @@ public class ChessBoard {
 
 
     public List<ChessPiece> getPieces(ChessGame.TeamColor team) {
-        List<ChessPiece> teamPieces = new ArrayList<>();
-        for (ChessPiece[] row : piecePositions) {
-            for (ChessPiece piece : row) {
-                if (piece != null && piece.getTeamColor() == team) {
-                    teamPieces.add(piece);
-                }
-            }
+        Bitboards index = bitboards();
+        List<ChessPiece> teamPieces = new ArrayList<>(index.pieceCount(team));
+        for (int i = 0; i < index.pieceCount(team); ++i) {
+            teamPieces.add(pieceAt(index.pieceSquare(team, i)));
         }
         return teamPieces;
     }
@@ -112,36 +426,41 @@ public class ChessBoard {
         // Clear existing pieces
         //piecePositionMap.clear();
         piecePositions = new ChessPiece[8][8];
+        undoStack.clear();
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
 
         // Set up the white pieces
         for (int i = 1; i <= 8; i++) {
             // Add white pawns
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
         // Add other white pieces
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
 
         // Set up the black pieces
         for (int i = 1; i <= 8; i++) {
             // Add black pawns
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
         // Add other black pieces
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
     }
 
 
@@ -169,35 +488,21 @@ public class ChessBoard {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
+        return bitboards().samePlacement(that.bitboards()); // All pieces match in type and color
+    }
 
-        for (int i = 0; i < piecePositions.length; i++) {
-            for (int j = 0; j < piecePositions[i].length; j++) {
-                ChessPiece thisPiece = piecePositions[i][j];
-                ChessPiece thatPiece = that.piecePositions[i][j];
-                if (thisPiece == null && thatPiece == null) {
-                    continue; // Both positions are empty, so they are equal
-                }
-                if (thisPiece == null || thatPiece == null) {
-                    return false; // One is null and the other isn't, so they are not equal
-                }
-                if (thisPiece.getPieceType() != thatPiece.getPieceType() ||
-                        thisPiece.getTeamColor() != thatPiece.getTeamColor()) {
-                    return false; // Different type or color
-                }
-            }
-        }
-        return true; // All pieces match in type and color
+    /**
+     * @return the Zobrist key of the piece placement, castling rights and en passant square.
+     * The placement part is maintained incrementally as pieces are added and moved.
+     */
+    public long getZobristKey() {
+        return bitboards().key() ^ Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
     }
 
     @Override
     public int hashCode() {
-        int result = 1;
-        for (ChessPiece[] row : piecePositions) {
-            for (ChessPiece piece : row) {
-                result = 31 * result + (piece == null ? 0 : piece.hashCode());
-            }
-        }
-        return result;
+        // equals only compares placement, so the hash must not depend on the rules state
+        return Long.hashCode(bitboards().key());
     }
 
 }
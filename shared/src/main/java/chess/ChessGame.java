@@ -12,10 +12,33 @@ public class ChessGame {
     TeamColor teamTurn;
     ChessBoard board;
 
+    // Published by the writer after every change, so readers only ever read it
+    private transient volatile Position snapshot;
+
     public ChessGame() {
         teamTurn = TeamColor.WHITE;
         board = new ChessBoard();
         board.resetBoard();
+        snapshot = Position.of(board, teamTurn);
+    }
+
+    /**
+     * Creates an independent copy of a game, including the moves made on its board, so
+     * the copy detects repetitions like the original
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this(new ChessBoard(other.board), other.teamTurn);
+    }
+
+    /**
+     * Creates a game on a board the caller hands over, publishing one snapshot
+     */
+    ChessGame(ChessBoard board, TeamColor teamTurn) {
+        this.teamTurn = teamTurn;
+        this.board = board;
+        snapshot = Position.of(board, teamTurn);
     }
 
     /**
@@ -32,6 +55,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         teamTurn = team;
+        snapshot = Position.of(board, teamTurn);
     }
 
     /**
@@ -42,6 +66,18 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Enum identifying the state of a game from the point of view of the side to move
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        /** Drawn by threefold repetition or the fifty-move rule */
+        DRAW
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -50,30 +86,21 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        // Repeated queries for the same position, from this game or any other, are served from the shared cache
+        return MoveCache.SHARED.legalMoves(board, startPosition);
+    }
 
-        ChessPiece piece = board.getPiece(startPosition);
-        TeamColor team = piece.getTeamColor();
-        List<ChessMove> validMoves = new ArrayList<>();
-
-        if (team != teamTurn && teamTurn != null) {
-            return validMoves;
-        }
-
-        for (ChessMove move : piece.pieceMoves(board,startPosition)) {
-            ChessPiece pieceAtEndPos = board.getPiece(move.getEndPosition());
-
-            board.movePiece(move);
-            if (!isInCheck(team)) {
-                validMoves.add(move);
-            }
-
-            ChessMove reverseMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), null);
-            board.movePiece(reverseMove);
-            if (pieceAtEndPos != null) {
-                board.addPiece(move.getEndPosition(), pieceAtEndPos);
-            }
-        }
-        return validMoves;
+    /**
+     * Gets the valid moves for a piece using check and pin masks computed once for
+     * the position, rather than playing each move and testing for check.
+     * Returns the same moves as {@link #validMoves(ChessPosition)}, bypassing the move cache.
+     *
+     * @param startPosition the piece to get valid moves for
+     * @return Set of valid moves for requested piece, or null if no piece at
+     * startPosition
+     */
+    public Collection<ChessMove> legalMoves(ChessPosition startPosition) {
+        return MoveGenerator.legalMoves(board, startPosition);
     }
 
     /**
@@ -83,33 +110,49 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        if (!tryMove(move).valid()) {
+            throw new InvalidMoveException("Invalid Move");
+        }
+    }
 
-        for (ChessMove currMove : validMoves(move.getStartPosition())) {
-            if (move.equals(currMove)) {
-                board.movePiece(move);
-                if (teamTurn == TeamColor.WHITE) {
-                    teamTurn = TeamColor.BLACK;
-                }
-                else {
-                    teamTurn = TeamColor.WHITE;
-                }
-                if (isInCheckmate(teamTurn)) {
-                    String winner;
-                    if (teamTurn == TeamColor.WHITE) {
-                        winner = "Black";
-                    }
-                    else {
-                        winner = "White";
-                    }
-                    throw new InvalidMoveException("Checkmate! " + winner + " wins!");
-                }
-                if (isInStalemate(teamTurn)) {
-                    throw new InvalidMoveException("Stalemate, game over :(");
-                }
-                return;
-            }
+    /**
+     * Makes a move if it is valid and reports how the game stands afterwards, so callers
+     * can tell an illegal move from the end of the game without catching exceptions
+     *
+     * @param move chess move to preform
+     * @return the result of the move, or {@link MoveResult#INVALID} if it was not played
+     */
+    public MoveResult tryMove(ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        if (piece == null || (teamTurn != null && piece.getTeamColor() != teamTurn)) {
+            return MoveResult.INVALID;
+        }
+        if (!validMoves(move.getStartPosition()).contains(move)) {
+            return MoveResult.INVALID;
+        }
+
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        if (captured == null && piece.getPieceType() == ChessPiece.PieceType.PAWN
+                && move.getStartPosition().getColumn() != move.getEndPosition().getColumn()) {
+            // En passant takes the pawn beside the start square
+            captured = board.getPiece(ChessPosition.of(move.getStartPosition().getRow(), move.getEndPosition().getColumn()));
+        }
+        Position previous = snapshot;
+        boolean current = previous != null && previous.getKey() == positionKey();
+        board.movePiece(move);
+        if (teamTurn == TeamColor.WHITE) {
+            teamTurn = TeamColor.BLACK;
         }
-        throw new InvalidMoveException("Invalid Move");
+        else {
+            teamTurn = TeamColor.WHITE;
+        }
+        // Reuse the unchanged ranks of the last snapshot unless the board was changed behind its back
+        snapshot = current
+                ? previous.after(board, teamTurn, move.getStartPosition().getRow() - 1, move.getEndPosition().getRow() - 1)
+                : Position.of(board, teamTurn);
+        GameStatus status = evaluateStatus();
+        boolean check = status == GameStatus.CHECK || status == GameStatus.CHECKMATE;
+        return new MoveResult(true, status, captured, check);
     }
 
     /**
@@ -119,29 +162,28 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        TeamColor oppTeam = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        ChessPosition kingPos = board.getKingPosition(teamColor);
+        int king = board.bitboards().kingSquare(teamColor);
 
-        if (kingPos == null) {
+        if (king < 0) {
             return false; // This should not happen in a valid game state
         }
 
-        // Iterate over all pieces of the opposing team to see if any can move to the king's position
-        for (ChessPiece piece : board.getPieces(oppTeam)) {
-            ChessPosition piecePos = board.getPosition(piece);
-
-            // For each piece, generate all valid moves considering the current board state
-            for (ChessMove move : piece.pieceMoves(board, piecePos)) {
-                // Check if any move ends at the king's position
-                if (move.getEndPosition().equals(kingPos)) {
-                    return true;
-                }
-            }
-        }
-        return false; // If no opposing piece can legally move to the king's position, not in check
+        TeamColor oppTeam = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return board.isSquareAttacked(king, oppTeam);
     }
 
 
+    /**
+     * Determines if any piece of a team attacks a square
+     *
+     * @param position the square to test
+     * @param byColor  which team's pieces to look for
+     * @return True if a piece of byColor attacks position
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return board.isSquareAttacked(position, byColor);
+    }
+
     /**
      * Determines if the given team is in checkmate
      *
@@ -149,37 +191,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        ChessPiece kingPiece = board.getKingPiece(teamColor);
-        ChessPosition kingPos = board.getPosition(kingPiece);
-
-        if (isInCheck(teamColor)) {
-            for (ChessMove move : kingPiece.pieceMoves(board, kingPos)) {
-                ChessPiece pieceAtEndPos = board.getPiece(move.getEndPosition());
-
-                // Try the move
-                board.movePiece(move);
-                if (!isInCheck(teamColor)) {
-                    // If the king is not in check after the move, it's not checkmate
-                    // Revert the move and return false
-                    ChessMove reverseMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), null);
-                    board.movePiece(reverseMove);
-                    if (pieceAtEndPos != null) {
-                        board.addPiece(move.getEndPosition(), pieceAtEndPos);
-                    }
-                    return false;
-                }
-
-                // Revert the move
-                ChessMove reverseMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), null);
-                board.movePiece(reverseMove);
-                if (pieceAtEndPos != null) {
-                    board.addPiece(move.getEndPosition(), pieceAtEndPos);
-                }
-            }
-            return true; // No moves take the king out of check, so it's checkmate
-        } else {
-            return false; // Not in check, so not checkmate
-        }
+        return evaluateStatus(teamColor) == GameStatus.CHECKMATE;
     }
 
 
@@ -192,31 +204,57 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            for (ChessPiece piece : board.getPieces(teamColor)) {
-                for (ChessMove move : piece.pieceMoves(board, board.getPosition(piece))) {
-                    ChessPiece pieceAtEndPos = board.getPiece(move.getEndPosition());
-                    board.movePiece(move);
-                    if (!isInCheck(teamColor)) {
-                        ChessMove reverseMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), null);
-                        board.movePiece(reverseMove);
-                        if (pieceAtEndPos != null) {
-                            board.addPiece(move.getEndPosition(), pieceAtEndPos);
-                        }
-                        return false;
-                    }
-                    ChessMove reverseMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), null);
-                    board.movePiece(reverseMove);
-                    if (pieceAtEndPos != null) {
-                        board.addPiece(move.getEndPosition(), pieceAtEndPos);
-                    }
-                }
+        return evaluateStatus(teamColor) == GameStatus.STALEMATE;
+    }
+
+    /**
+     * Determines whether the side to move is in check, checkmate or stalemate with a
+     * single check test and one legal move search that stops at the first move found.
+     * A game that is not over is a draw once the position has occurred three times or
+     * fifty moves have passed without a capture or pawn move.
+     *
+     * @return the status of the game for the team whose turn it is
+     */
+    public GameStatus evaluateStatus() {
+        return teamTurn == null ? GameStatus.IN_PROGRESS : evaluateStatus(teamTurn);
+    }
+
+    private GameStatus evaluateStatus(TeamColor teamColor) {
+        return evaluateStatus(teamColor, MoveGenerator.hasLegalMove(board, teamColor));
+    }
+
+    /**
+     * @return the status of the game for teamColor, for callers that already know
+     * whether it has a legal move
+     */
+    GameStatus evaluateStatus(TeamColor teamColor, boolean hasLegalMove) {
+        boolean check = isInCheck(teamColor);
+        if (hasLegalMove) {
+            if (board.getHalfmoveClock() >= 100 || board.repetitions() >= 2) {
+                return GameStatus.DRAW;
             }
-            return true;
-        }
-        else {
-            return false;
+            return check ? GameStatus.CHECK : GameStatus.IN_PROGRESS;
         }
+        return check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation
+     *
+     * @param fen the position, e.g. {@link Fen#START_POSITION}
+     * @return a new game in that position, with no move history
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.load(fen);
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation, a compact alternative
+     * to the JSON form for storing, logging or sending a position
+     */
+    public String toFen() {
+        return Fen.write(this);
     }
 
     /**
@@ -226,6 +264,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard newBoard) {
         board = newBoard;
+        snapshot = Position.of(board, teamTurn);
     }
 
     /**
@@ -237,6 +276,40 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Gets an immutable copy of the position after the last move made through this game,
+     * which any thread may read without locking while the game continues. Only the thread
+     * changing the game builds snapshots, so a reader never sees a half-made move.
+     *
+     * @return the latest published snapshot
+     */
+    public Position snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot of the current position. Moves, {@link #setBoard} and
+     * {@link #setTeamTurn} do this already; call it after changing the board directly
+     * or after reading the game from JSON, which bypasses them.
+     */
+    public void publishSnapshot() {
+        snapshot = Position.of(board, teamTurn);
+    }
+
+    /**
+     * @return a 64-bit Zobrist key identifying the piece placement, side to move,
+     * castling rights and en passant square, suitable as a cache key or for
+     * repetition detection
+     */
+    public long positionKey() {
+        return positionKey(board, teamTurn);
+    }
+
+    static long positionKey(ChessBoard board, TeamColor teamTurn) {
+        long key = board.getZobristKey();
+        return (teamTurn == TeamColor.BLACK) ? key ^ Zobrist.SIDE : key;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -247,6 +320,8 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getTeamTurn(), getBoard());
+        // equals ignores castling and en passant, so hash only what it compares
+        long key = board.bitboards().key();
+        return Long.hashCode(teamTurn == TeamColor.BLACK ? key ^ Zobrist.SIDE : key);
     }
 }
@@ -9,9 +9,14 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
-    ChessPosition startPos;
-    ChessPosition endPos;
-    ChessPiece.PieceType promoPiece;
+    // Shared instances, filled on first use: one slot per from square, to square and
+    // promotion (none or a piece type). Fields are final, so a racing fill is harmless
+    private static final int PROMOTIONS = ChessPiece.PieceType.values().length + 1;
+    private static final ChessMove[] MOVES = new ChessMove[Bitboards.SQUARES * Bitboards.SQUARES * PROMOTIONS];
+
+    final ChessPosition startPos;
+    final ChessPosition endPos;
+    final ChessPiece.PieceType promoPiece;
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
@@ -21,6 +26,31 @@ public class ChessMove {
 
     }
 
+    /**
+     * @return the shared instance for a move between two squares on the board, or a new
+     * move if either position is off the board
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (!ChessPosition.onBoard(startPosition) || !ChessPosition.onBoard(endPosition)) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return of(Bitboards.square(startPosition), Bitboards.square(endPosition), promotionPiece);
+    }
+
+    /**
+     * @return the shared instance for a move between two square indexes
+     */
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        int slot = (from * Bitboards.SQUARES + to) * PROMOTIONS + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+        ChessMove move = MOVES[slot];
+        if (move == null) {
+            move = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+            MOVES[slot] = move;
+        }
+        return move;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -49,7 +79,8 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPos, endPos, promoPiece);
+        // Same value as Objects.hash(startPos, endPos, promoPiece), without the varargs array
+        return 31 * (31 * (31 + Objects.hashCode(startPos)) + Objects.hashCode(endPos)) + Objects.hashCode(promoPiece);
     }
 
     /**
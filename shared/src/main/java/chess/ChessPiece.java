@@ -3,7 +3,6 @@ package chess;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -13,16 +12,34 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
-    private static int nextId = 0; // Static counter for unique IDs
-    private final int id; // Unique ID for each piece
-    PieceType myType;
-    ChessGame.TeamColor myColor;
+    // Shared instances, one per color and type, indexed like the bitboards
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[Bitboards.index(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    final PieceType myType;
+    final ChessGame.TeamColor myColor;
 
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         myType = type;
         myColor = pieceColor;
-        this.id = nextId++;
+    }
+
+    /**
+     * Pieces are immutable and equal by color and type, so every board can share
+     * the same twelve instances
+     *
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[Bitboards.index(pieceColor, type)];
     }
 
     /**
@@ -64,98 +81,20 @@ public class ChessPiece {
         int col = myPosition.getColumn();
         ChessPosition currPos = null;
 
-        if (myType == PieceType.BISHOP) {
-            int i = row + 1;
-            int j = col + 1;
-
-            while (i < 9 && j < 9) {
-                currPos = new ChessPosition(i, j);
-                ChessMove move = new ChessMove(myPosition, currPos, null);
-                if (board.getPiece(currPos) != null) {
-                    if (board.getPiece(currPos).getTeamColor() != myColor) {
-                        ret.add(move); // Capture move
-                    }
-                    break;
-                }
-                else { ret.add(move); }
-                ++i; ++j;
-            }
-            i = row - 1; j = col - 1;
-            while (i > 0 && j > 0) {
-                currPos = new ChessPosition(i, j);
-                ChessMove move = new ChessMove(myPosition, currPos, null);
-                if (board.getPiece(currPos) != null) {
-                    if (board.getPiece(currPos).getTeamColor() != myColor) {
-                        ret.add(move);
-                    }
-                    break;
-                }
-                else { ret.add(move); }
-                --i; --j;
-            }
-            i = row + 1; j = col - 1;
-            while (i < 9 && j > 0) {
-                currPos = new ChessPosition(i, j);
-                ChessMove move = new ChessMove(myPosition, currPos, null);
-                if (board.getPiece(currPos) != null) {
-                    if (board.getPiece(currPos).getTeamColor() != myColor) {
-                        ret.add(move);
-                    }
-                    break;
-                }
-                else { ret.add(move); }
-                ++i; --j;
-            }
-            i = row - 1; j = col + 1;
-            while (i > 0 && j < 9) {
-                currPos = new ChessPosition(i, j);
-                ChessMove move = new ChessMove(myPosition, currPos, null);
-                if (board.getPiece(currPos) != null) {
-                    if (board.getPiece(currPos).getTeamColor() != myColor) {
-                        ret.add(move);
-                    }
-                    break;
-                }
-                else { ret.add(move); }
-                --i; ++j;
-            }
+        if (myType == PieceType.BISHOP || myType == PieceType.ROOK || myType == PieceType.QUEEN) {
+            int square = Bitboards.square(myPosition);
+            long occupied = board.bitboards().occupied();
+            long targets = switch (myType) {
+                case BISHOP -> Attacks.bishop(square, occupied);
+                case ROOK -> Attacks.rook(square, occupied);
+                default -> Attacks.queen(square, occupied);
+            };
+            addMoves(ret, myPosition, targets & ~board.bitboards().occupancy(myColor));
         }
-        else if (myType == PieceType.KING) {
-            for (int i = -1; i < 2; ++i){
-                if (row + i < 9 && row + i > 0) {
-                    for (int j = -1; j < 2; ++j) {
-                        if (col + j < 9 && col + j > 0) {
-                            currPos = new ChessPosition(row + i,col + j);
-                            ChessMove move = new ChessMove(myPosition, currPos, null);
-
-                            if (board.getPiece(currPos) != null) {
-                                if (board.getPiece(currPos).getTeamColor() != myColor) {
-                                    ret.add(move);
-                                }
-                            }
-                            else { ret.add(move); }
-                        }
-                    }
-                }
-            }
-        }
-        else if (myType == PieceType.KNIGHT) {
-            int [] rowPos = new int[]{2,2,1,1,-1,-1,-2,-2};
-            int [] colPos = new int[]{1,-1,2,-2,2,-2,1,-1};
-            for (int i = 0; i < rowPos.length; ++i) {
-                if (row + rowPos[i] > 0 && row + rowPos[i] < 9 && col + colPos[i] > 0 && col + colPos[i] < 9) {
-                    currPos = new ChessPosition(row + rowPos[i],col + colPos[i]);
-                    ChessMove move = new ChessMove(myPosition, currPos, null);
-
-                    if (board.getPiece(currPos) != null) {
-                        if (board.getPiece(currPos).getTeamColor() != myColor) {
-                            ret.add(move);
-                        }
-                    }
-                    else { ret.add(move); }
-                }
-            }
-
+        else if (myType == PieceType.KING || myType == PieceType.KNIGHT) {
+            int square = Bitboards.square(myPosition);
+            long targets = (myType == PieceType.KING) ? Attacks.king(square) : Attacks.knight(square);
+            addMoves(ret, myPosition, targets & ~board.bitboards().occupancy(myColor));
         }
         else if (myType == PieceType.PAWN) {
             int direction = 1;
@@ -164,27 +103,27 @@ public class ChessPiece {
                 direction = -1;
             }
             // Checking if it can go one or two ahead
-            currPos = new ChessPosition(row + direction, col);
+            currPos = ChessPosition.of(row + direction, col);
             if (board.getPiece(currPos) == null) {
                 // Checking if this move is a promotion
                 if ((row == 2 && myColor == ChessGame.TeamColor.BLACK) || (row == 7 && myColor == ChessGame.TeamColor.WHITE)) {
-                    move = new ChessMove(myPosition, currPos, PieceType.QUEEN);
+                    move = ChessMove.of(myPosition, currPos, PieceType.QUEEN);
                     ret.add(move);
-                    move = new ChessMove(myPosition, currPos, PieceType.BISHOP);
+                    move = ChessMove.of(myPosition, currPos, PieceType.BISHOP);
                     ret.add(move);
-                    move = new ChessMove(myPosition, currPos, PieceType.ROOK);
+                    move = ChessMove.of(myPosition, currPos, PieceType.ROOK);
                     ret.add(move);
-                    move = new ChessMove(myPosition, currPos, PieceType.KNIGHT);
+                    move = ChessMove.of(myPosition, currPos, PieceType.KNIGHT);
                     ret.add(move);
                 }
                 else {
-                    move = new ChessMove(myPosition, currPos, null);
+                    move = ChessMove.of(myPosition, currPos, null);
                     ret.add(move);
                     //Checking if it can go two ahead
                     if ((row == 2 && myColor == ChessGame.TeamColor.WHITE) || (row == 7 && myColor == ChessGame.TeamColor.BLACK)) {
-                        currPos = new ChessPosition(row + (direction * 2), col);
+                        currPos = ChessPosition.of(row + (direction * 2), col);
                         if (board.getPiece(currPos) == null) {
-                            move = new ChessMove(myPosition, currPos, null);
+                            move = ChessMove.of(myPosition, currPos, null);
                             ret.add(move);
                         }
                     }
@@ -193,97 +132,53 @@ public class ChessPiece {
             }
             // Checking if it can take
             if (col - 1 > 0) {
-                currPos = new ChessPosition(row + direction, col - 1);
+                currPos = ChessPosition.of(row + direction, col - 1);
                 if (board.getPiece(currPos) != null && board.getPiece(currPos).getTeamColor() != myColor ) {
                     if (row + direction == 1 || row + direction == 8) {
-                        move = new ChessMove(myPosition, currPos, PieceType.QUEEN);
+                        move = ChessMove.of(myPosition, currPos, PieceType.QUEEN);
                         ret.add(move);
-                        move = new ChessMove(myPosition, currPos, PieceType.BISHOP);
+                        move = ChessMove.of(myPosition, currPos, PieceType.BISHOP);
                         ret.add(move);
-                        move = new ChessMove(myPosition, currPos, PieceType.ROOK);
+                        move = ChessMove.of(myPosition, currPos, PieceType.ROOK);
                         ret.add(move);
-                        move = new ChessMove(myPosition, currPos, PieceType.KNIGHT);
+                        move = ChessMove.of(myPosition, currPos, PieceType.KNIGHT);
                         ret.add(move);
                     }
                     else {
-                        move = new ChessMove(myPosition, currPos, null);
+                        move = ChessMove.of(myPosition, currPos, null);
                         ret.add(move);
                     }
                 }
             }
             if (col + 1 < 9) {
-                currPos = new ChessPosition(row + direction, col + 1);
+                currPos = ChessPosition.of(row + direction, col + 1);
                 if (board.getPiece(currPos) != null && board.getPiece(currPos).getTeamColor() != myColor ) {
                     if (row + direction == 1 || row + direction == 8) {
-                        move = new ChessMove(myPosition, currPos, PieceType.QUEEN);
+                        move = ChessMove.of(myPosition, currPos, PieceType.QUEEN);
                         ret.add(move);
-                        move = new ChessMove(myPosition, currPos, PieceType.BISHOP);
+                        move = ChessMove.of(myPosition, currPos, PieceType.BISHOP);
                         ret.add(move);
-                        move = new ChessMove(myPosition, currPos, PieceType.ROOK);
+                        move = ChessMove.of(myPosition, currPos, PieceType.ROOK);
                         ret.add(move);
-                        move = new ChessMove(myPosition, currPos, PieceType.KNIGHT);
+                        move = ChessMove.of(myPosition, currPos, PieceType.KNIGHT);
                         ret.add(move);
                     }
                     else {
-                        move = new ChessMove(myPosition, currPos, null);
+                        move = ChessMove.of(myPosition, currPos, null);
                         ret.add(move);
                     }
                 }
             }
 
         }
-        else if (myType == PieceType.QUEEN) {
-            int [] rowMoves = new int[] {1,1,1,0,0,-1,-1,-1};
-            int [] colMoves = new int[] {-1,0,1,-1,1,-1,0,1};
-            ChessMove move;
-            for (int i = 0; i < rowMoves.length; ++i) {
-                int myRow = row + rowMoves[i];
-                int myCol = col + colMoves[i];
-                while (myRow < 9 && myRow > 0 && myCol < 9 && myCol > 0) {
-                    currPos = new ChessPosition(myRow, myCol);
-                    if (board.getPiece(currPos) == null) {
-                        move = new ChessMove(myPosition, currPos, null);
-                        ret.add(move);
-                    }
-                    else {
-                        if (board.getPiece(currPos).getTeamColor() != myColor) {
-                            move = new ChessMove(myPosition, currPos, null);
-                            ret.add(move);
-                        }
-                        break;
-                    }
-                    myRow += rowMoves[i];
-                    myCol += colMoves[i];
-                }
-            }
-        }
-        else if (myType == PieceType.ROOK) {
-            int [] rowMoves = new int[] {-1,1,0,0};
-            int [] colMoves = new int[] {0,0,-1,1};
-            ChessMove move;
-
-            for (int i = 0; i < rowMoves.length; ++i) {
-                int myRow = row + rowMoves[i];
-                int myCol = col + colMoves[i];
+        return ret;
+    }
 
-                while (myRow < 9 && myRow > 0 && myCol < 9 && myCol > 0) {
-                    currPos = new ChessPosition(myRow, myCol);
-                    if (board.getPiece(currPos) == null) {
-                        move = new ChessMove(myPosition, currPos, null);
-                        ret.add(move);
-                    } else {
-                        if (board.getPiece(currPos).getTeamColor() != myColor) {
-                            move = new ChessMove(myPosition, currPos, null);
-                            ret.add(move);
-                        }
-                        break;
-                    }
-                    myRow += rowMoves[i];
-                    myCol += colMoves[i];
-                }
-            }
+    private static void addMoves(Collection<ChessMove> moves, ChessPosition from, long targets) {
+        for (; targets != 0; targets &= targets - 1) {
+            int square = Long.numberOfTrailingZeros(targets);
+            moves.add(ChessMove.of(Bitboards.square(from), square, null));
         }
-        return ret;
     }
 
     public String toString() {
@@ -326,21 +221,16 @@ public class ChessPiece {
         return "n/a";
     }
 
-    public void changeType(PieceType type) {
-        myType = type;
-
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessPiece that = (ChessPiece) o;
-        return id == that.id && myType == that.myType && myColor == that.myColor;
+        return myType == that.myType && myColor == that.myColor;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, myType, myColor);
+        return Bitboards.index(myColor, myType);
     }
 }
@@ -10,13 +10,45 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
-    int myRow;
-    int myCol;
+    // One shared instance per square, indexed like Bitboards.square
+    private static final ChessPosition[] SQUARES = new ChessPosition[Bitboards.SQUARES];
+
+    static {
+        for (int square = 0; square < Bitboards.SQUARES; ++square) {
+            SQUARES[square] = new ChessPosition(Bitboards.row(square), Bitboards.column(square));
+        }
+    }
+
+    final int myRow;
+    final int myCol;
     public ChessPosition(int row, int col) {
         myRow = row;
         myCol = col;
     }
 
+    /**
+     * @return the shared instance for a square on the board, or a new position if
+     * row or col is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[Bitboards.square(row, col)];
+    }
+
+    static boolean onBoard(ChessPosition position) {
+        return position != null && position.myRow >= 1 && position.myRow <= 8
+                && position.myCol >= 1 && position.myCol <= 8;
+    }
+
+    /**
+     * @return the shared instance for a square index (see {@link Bitboards#square(int, int)})
+     */
+    static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -43,7 +75,8 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(myRow, myCol);
+        // Same value as Objects.hash(myRow, myCol), without boxing
+        return 31 * (31 + myRow) + myCol;
     }
 
     public String toString() {
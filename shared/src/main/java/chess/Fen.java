@@ -0,0 +1,320 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The parser walks the characters in place, so a FEN inside a larger buffer or message
+ * is read without copying it into a String first. Fields after the placement may be
+ * left off and keep the defaults of a new board. An en passant square is only kept
+ * when a pawn can actually capture onto it, matching how moves record it.
+ */
+public class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * @param fen the position to load
+     * @return a new game set up in the given position
+     * @throws IllegalArgumentException if the placement, side to move, castling rights,
+     *                                  en passant square or move counters are malformed
+     */
+    public static ChessGame load(CharSequence fen) {
+        return new Parser(fen, 0, fen.length()).game();
+    }
+
+    /**
+     * Loads a FEN stored as ASCII between the buffer's position and limit. The buffer's
+     * position is left where it was.
+     *
+     * @param fen the position to load
+     * @return a new game set up in the given position
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame load(ByteBuffer fen) {
+        return load(new AsciiSequence(fen, fen.position(), fen.remaining()));
+    }
+
+    /**
+     * @return the FEN of the game, with all six fields
+     */
+    public static String write(ChessGame game) {
+        return write(game, new StringBuilder(90)).toString();
+    }
+
+    /**
+     * Appends the FEN of the game to out, so callers building a larger message need
+     * no intermediate String
+     *
+     * @return out
+     */
+    public static StringBuilder write(ChessGame game, StringBuilder out) {
+        ChessBoard board = game.getBoard();
+        for (int row = 8; row >= 1; --row) {
+            int empty = 0;
+            for (int col = 1; col <= 8; ++col) {
+                ChessPiece piece = board.pieceAt(Bitboards.square(row, col));
+                if (piece == null) {
+                    ++empty;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                out.append('/');
+            }
+        }
+
+        out.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b " : " w ");
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            out.append('-');
+        } else {
+            if ((rights & ChessBoard.WHITE_KINGSIDE) != 0) out.append('K');
+            if ((rights & ChessBoard.WHITE_QUEENSIDE) != 0) out.append('Q');
+            if ((rights & ChessBoard.BLACK_KINGSIDE) != 0) out.append('k');
+            if ((rights & ChessBoard.BLACK_QUEENSIDE) != 0) out.append('q');
+        }
+        out.append(' ');
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + Bitboards.column(enPassant) - 1)).append((char) ('0' + Bitboards.row(enPassant)));
+        }
+        return out.append(' ').append(board.getHalfmoveClock()).append(' ').append(board.getFullmoveNumber());
+    }
+
+    static ChessPiece.PieceType pieceType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+    }
+
+    static char pieceChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * Reads the fields of a FEN one character at a time. Text is only copied into a
+     * String to build the message of an exception.
+     */
+    private static final class Parser {
+        private final CharSequence text;
+        private final int end;
+        private int index;
+
+        Parser(CharSequence text, int start, int end) {
+            this.text = text;
+            this.index = start;
+            this.end = end;
+        }
+
+        ChessGame game() {
+            ChessBoard board = new ChessBoard();
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+
+            nextField();
+            placement(board);
+            if (nextField()) {
+                game.setTeamTurn(sideToMove());
+            }
+            if (nextField()) {
+                board.setCastlingRights(castlingRights());
+            }
+            if (nextField()) {
+                ChessGame.TeamColor us = game.getTeamTurn();
+                int square = enPassantSquare(us);
+                if (square >= 0 && (Attacks.pawn(MoveGenerator.opponent(us), square)
+                        & board.bitboards().pieces(us, ChessPiece.PieceType.PAWN)) != 0) {
+                    board.setEnPassantSquare(square);
+                }
+            }
+            if (nextField()) {
+                board.setHalfmoveClock(number("halfmove clock", 0));
+            }
+            if (nextField()) {
+                board.setFullmoveNumber(number("fullmove number", 1));
+            }
+            if (nextField()) {
+                throw bad("field", index, end);
+            }
+            game.publishSnapshot();
+            return game;
+        }
+
+        // Skips whitespace and reports whether another field follows
+        private boolean nextField() {
+            while (index < end && Character.isWhitespace(text.charAt(index))) {
+                ++index;
+            }
+            return index < end;
+        }
+
+        private int fieldEnd() {
+            int i = index;
+            while (i < end && !Character.isWhitespace(text.charAt(i))) {
+                ++i;
+            }
+            return i;
+        }
+
+        private void placement(ChessBoard board) {
+            int start = index;
+            int stop = fieldEnd();
+            int row = 8;
+            int col = 1;
+            for (; index < stop; ++index) {
+                char c = text.charAt(index);
+                if (c == '/') {
+                    if (col != 9) {
+                        throw bad("placement", start, stop);
+                    }
+                    --row;
+                    col = 1;
+                } else if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    ChessPiece.PieceType type = pieceType(c);
+                    if (type == null || row < 1 || col > 8) {
+                        throw bad("placement", start, stop);
+                    }
+                    ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                    board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, type));
+                    ++col;
+                }
+                if (col > 9) {
+                    throw bad("placement", start, stop);
+                }
+            }
+            if (row != 1 || col != 9) {
+                throw bad("placement", start, stop);
+            }
+        }
+
+        private ChessGame.TeamColor sideToMove() {
+            int start = index;
+            int stop = fieldEnd();
+            index = stop;
+            if (stop - start == 1 && text.charAt(start) == 'w') {
+                return ChessGame.TeamColor.WHITE;
+            }
+            if (stop - start == 1 && text.charAt(start) == 'b') {
+                return ChessGame.TeamColor.BLACK;
+            }
+            throw bad("side to move", start, stop);
+        }
+
+        private int castlingRights() {
+            int start = index;
+            int stop = fieldEnd();
+            index = stop;
+            if (stop - start == 1 && text.charAt(start) == '-') {
+                return 0;
+            }
+            int rights = 0;
+            for (int i = start; i < stop; ++i) {
+                rights |= switch (text.charAt(i)) {
+                    case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                    case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                    case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                    case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                    default -> throw bad("castling rights", start, stop);
+                };
+            }
+            return rights;
+        }
+
+        // The square is behind a pawn of the side not to move, so rank 6 when white is to move
+        private int enPassantSquare(ChessGame.TeamColor us) {
+            int start = index;
+            int stop = fieldEnd();
+            index = stop;
+            if (stop - start == 1 && text.charAt(start) == '-') {
+                return -1;
+            }
+            if (stop - start == 2) {
+                char file = text.charAt(start);
+                char rank = text.charAt(start + 1);
+                if (file >= 'a' && file <= 'h' && rank == (us == ChessGame.TeamColor.WHITE ? '6' : '3')) {
+                    return Bitboards.square(rank - '0', file - 'a' + 1);
+                }
+            }
+            throw bad("en passant square", start, stop);
+        }
+
+        private int number(String name, int min) {
+            int start = index;
+            int stop = fieldEnd();
+            index = stop;
+            int value = 0;
+            for (int i = start; i < stop; ++i) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9' || value > 100_000) {
+                    throw bad(name, start, stop);
+                }
+                value = value * 10 + (c - '0');
+            }
+            if (start == stop || value < min) {
+                throw bad(name, start, stop);
+            }
+            return value;
+        }
+
+        private IllegalArgumentException bad(String field, int start, int stop) {
+            return new IllegalArgumentException("Bad FEN " + field + ": " + text.subSequence(start, stop));
+        }
+    }
+
+    /**
+     * A read-only view of ASCII bytes in a buffer as characters, without copying them
+     */
+    private record AsciiSequence(ByteBuffer bytes, int offset, int length) implements CharSequence {
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(length);
+            for (int i = 0; i < length; ++i) {
+                out.append(charAt(i));
+            }
+            return out.toString();
+        }
+    }
+}
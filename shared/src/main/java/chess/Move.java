@@ -0,0 +1,119 @@
+package chess;
+
+/**
+ * Packs a move into the low 16 bits of an int, so the engine can store and
+ * compare moves as primitives:
+ * <pre>
+ *  bits  0-5   from square (see {@link Bitboards#square(int, int)})
+ *  bits  6-11  to square
+ *  bits 12-15  flags
+ * </pre>
+ * The flags mark quiet moves, double pawn pushes, castling, captures, en passant
+ * and promotions; a promotion keeps the promoted piece in its two lowest flag bits.
+ */
+public class Move {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+    };
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return flags(move) == KING_CASTLE || flags(move) == QUEEN_CASTLE;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return flags(move) == EN_PASSANT;
+    }
+
+    /**
+     * @return the type a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[flags(move) & 3] : null;
+    }
+
+    /**
+     * @return the promotion flags for a promotion to the given type
+     */
+    static int promotionFlags(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KNIGHT -> PROMOTION;
+            case BISHOP -> PROMOTION | 1;
+            case ROOK -> PROMOTION | 2;
+            case QUEEN -> PROMOTION | 3;
+            default -> throw new IllegalArgumentException("Cannot promote to " + type);
+        };
+    }
+
+    /**
+     * @return the public API form of a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+
+    /**
+     * Packs a move, reading the board to fill in its flags
+     *
+     * @param board the board the move is about to be played on
+     * @param move  the move to pack
+     */
+    public static int fromChessMove(ChessBoard board, ChessMove move) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        int flags = board.pieceAt(to) != null ? CAPTURE : QUIET;
+        if (move.getPromotionPiece() != null) {
+            flags |= promotionFlags(move.getPromotionPiece());
+        } else {
+            ChessPiece piece = board.pieceAt(from);
+            ChessPiece.PieceType type = piece != null ? piece.getPieceType() : null;
+            if (type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+                flags = DOUBLE_PAWN_PUSH;
+            } else if (type == ChessPiece.PieceType.PAWN && flags == QUIET && (to - from) % 8 != 0) {
+                flags = EN_PASSANT; // A pawn only moves diagonally onto an empty square by en passant
+            } else if (type == ChessPiece.PieceType.KING && to - from == 2) {
+                flags = KING_CASTLE;
+            } else if (type == ChessPiece.PieceType.KING && from - to == 2) {
+                flags = QUEEN_CASTLE;
+            }
+        }
+        return of(from, to, flags);
+    }
+}
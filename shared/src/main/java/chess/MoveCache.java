@@ -0,0 +1,117 @@
+package chess;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of legal move lists, keyed by the Zobrist key of the board and the
+ * square of the moving piece. It is shared by every game in the JVM, so games that
+ * reach the same position (most often in the opening) reuse each other's work.
+ * <p>
+ * Entries live in a fixed-size, direct-mapped table like an engine transposition
+ * table: a new position simply replaces whatever was in its slot. Slots are guarded
+ * by a small set of striped locks, so lookups from different games rarely contend.
+ */
+public class MoveCache {
+
+    public static final MoveCache SHARED = new MoveCache(1 << 13, 64);
+
+    private final long[] keys;
+    private final List<ChessMove>[][] moves;
+    private final Object[] locks;
+    private final int slotMask;
+    private final int lockMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param slots   number of positions held at once, rounded up to a power of two
+     * @param stripes number of locks guarding the slots, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MoveCache(int slots, int stripes) {
+        int slotCount = Integer.highestOneBit(Math.max(1, slots - 1) << 1);
+        int lockCount = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+        keys = new long[slotCount];
+        moves = new List[slotCount][];
+        locks = new Object[lockCount];
+        for (int i = 0; i < lockCount; ++i) {
+            locks[i] = new Object();
+        }
+        slotMask = slotCount - 1;
+        lockMask = lockCount - 1;
+    }
+
+    /**
+     * Gets the legal moves of the piece on a square, generating and storing them on a miss
+     *
+     * @param board         the board to look up
+     * @param startPosition the square of the piece to move
+     * @return an unmodifiable list of legal moves, or null if the square is empty
+     */
+    public List<ChessMove> legalMoves(ChessBoard board, ChessPosition startPosition) {
+        if (board.getPiece(startPosition) == null) {
+            return null;
+        }
+        long key = board.getZobristKey();
+        int square = Bitboards.square(startPosition);
+        int slot = (int) key & slotMask;
+        Object lock = locks[slot & lockMask];
+
+        synchronized (lock) {
+            if (keys[slot] == key && moves[slot] != null && moves[slot][square] != null) {
+                hits.increment();
+                return moves[slot][square];
+            }
+        }
+        misses.increment();
+        Collection<ChessMove> generated = MoveGenerator.legalMoves(board, startPosition);
+        List<ChessMove> result = List.copyOf(generated);
+        synchronized (lock) {
+            if (keys[slot] != key || moves[slot] == null) {
+                keys[slot] = key;
+                moves[slot] = newSlot();
+            }
+            moves[slot][square] = result;
+        }
+        return result;
+    }
+
+    // Generic arrays can only be made raw; every element is a List<ChessMove> or null
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<ChessMove>[] newSlot() {
+        return new List[Bitboards.SQUARES];
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 before any lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Empties the cache and resets its counters
+     */
+    public void clear() {
+        for (int slot = 0; slot <= slotMask; ++slot) {
+            synchronized (locks[slot & lockMask]) {
+                keys[slot] = 0L;
+                moves[slot] = null;
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+}
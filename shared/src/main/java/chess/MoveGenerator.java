@@ -0,0 +1,396 @@
+package chess;
+
+import java.util.List;
+
+/**
+ * Legal move generation from check and pin masks.
+ * <p>
+ * Instead of playing every pseudo-legal move and asking whether the king is
+ * left in check, the checkers and pinned pieces are computed once for the
+ * position, and each candidate is accepted or rejected with a mask test:
+ * <ul>
+ *     <li>in double check only the king may move</li>
+ *     <li>in single check other pieces must capture the checker or block its ray</li>
+ *     <li>a pinned piece must stay on the line through its king and the pinner</li>
+ *     <li>the king may not step onto a square attacked once it has left its own</li>
+ * </ul>
+ * Castling and en passant are only generated here, not by {@link ChessPiece#pieceMoves},
+ * since they depend on the board's castling rights and en passant square.
+ */
+public class MoveGenerator {
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Gets the legal moves for the piece on a square, regardless of whose turn it is
+     *
+     * @param board         the board to generate on
+     * @param startPosition the square of the piece to move
+     * @return the legal moves, or null if there is no piece on startPosition
+     */
+    public static List<ChessMove> legalMoves(ChessBoard board, ChessPosition startPosition) {
+        ChessPiece piece = board.getPiece(startPosition);
+        if (piece == null) {
+            return null;
+        }
+        MoveList moves = new MoveList();
+        generate(board, piece.getTeamColor(), Bitboards.bit(Bitboards.square(startPosition)), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Gets every legal move for one side
+     *
+     * @param board the board to generate on
+     * @param color the side to generate moves for
+     * @return the legal moves of all that side's pieces
+     */
+    public static List<ChessMove> legalMoves(ChessBoard board, ChessGame.TeamColor color) {
+        MoveList moves = new MoveList();
+        generate(board, color, ~0L, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Appends every legal move for one side to a list as packed moves (see {@link Move})
+     *
+     * @param board the board to generate on
+     * @param us    the side to generate moves for
+     * @param moves the list to append to
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor us, MoveList moves) {
+        generate(board, us, ~0L, moves);
+    }
+
+    /**
+     * Appends the legal moves of the pieces of one side standing on fromMask
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor us, long fromMask, MoveList moves) {
+        Bitboards bitboards = board.bitboards();
+        ChessGame.TeamColor them = opponent(us);
+        long ours = bitboards.occupancy(us);
+        long theirs = bitboards.occupancy(them);
+        long occupied = bitboards.occupied();
+        int king = bitboards.kingSquare(us);
+
+        long targets = ~ours;
+        long pinned = 0L;
+        if (king >= 0) {
+            long checkers = attackersTo(bitboards, king, occupied, them);
+            if ((fromMask & Bitboards.bit(king)) != 0) {
+                // Lift the king off the board so sliders see through its current square
+                long withoutKing = occupied & ~Bitboards.bit(king);
+                for (long to = Attacks.king(king) & ~ours; to != 0; to &= to - 1) {
+                    int square = Long.numberOfTrailingZeros(to);
+                    if (!isAttacked(bitboards, square, withoutKing, them)) {
+                        moves.add(Move.of(king, square, (theirs & Bitboards.bit(square)) != 0 ? Move.CAPTURE : Move.QUIET));
+                    }
+                }
+                if (checkers == 0) {
+                    addCastles(board, us, king, moves);
+                }
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return; // Double check, only the king can move
+            }
+            if (checkers != 0) {
+                targets &= checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinned(bitboards, king, us);
+            fromMask &= ~Bitboards.bit(king);
+        }
+
+        long movers = ours & fromMask;
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.KNIGHT) & ~pinned; pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, from, Attacks.knight(from) & targets, theirs);
+        }
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.KING); pieces != 0; pieces &= pieces - 1) {
+            // Only reached for a second king on a hand-built board
+            int from = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, from, Attacks.king(from) & targets & pinLine(king, from, pinned), theirs);
+        }
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.BISHOP); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, from, Attacks.bishop(from, occupied) & targets & pinLine(king, from, pinned), theirs);
+        }
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.ROOK); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, from, Attacks.rook(from, occupied) & targets & pinLine(king, from, pinned), theirs);
+        }
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.QUEEN); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, from, Attacks.queen(from, occupied) & targets & pinLine(king, from, pinned), theirs);
+        }
+
+        int forward = (us == ChessGame.TeamColor.WHITE) ? 8 : -8;
+        int startRow = (us == ChessGame.TeamColor.WHITE) ? 2 : 7;
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.PAWN); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long allowed = targets & pinLine(king, from, pinned);
+            int to = from + forward;
+            if (to < 0 || to > 63) {
+                continue;
+            }
+            if ((occupied & Bitboards.bit(to)) == 0) {
+                if ((allowed & Bitboards.bit(to)) != 0) {
+                    addPawnMoves(moves, from, to, Move.QUIET);
+                }
+                int twoAhead = to + forward;
+                if (Bitboards.row(from) == startRow && (occupied & Bitboards.bit(twoAhead)) == 0
+                        && (allowed & Bitboards.bit(twoAhead)) != 0) {
+                    moves.add(Move.of(from, twoAhead, Move.DOUBLE_PAWN_PUSH));
+                }
+            }
+            for (long captures = Attacks.pawn(us, from) & theirs & allowed; captures != 0; captures &= captures - 1) {
+                addPawnMoves(moves, from, Long.numberOfTrailingZeros(captures), Move.CAPTURE);
+            }
+        }
+        enPassant(board, us, king, movers, moves);
+    }
+
+    /**
+     * Adds the castling moves of a king that is not in check: the side must still have
+     * the right, the rook must be on its corner, the squares between them empty, and
+     * the squares the king crosses and lands on not attacked
+     */
+    private static void addCastles(ChessBoard board, ChessGame.TeamColor us, int king, MoveList moves) {
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        int rights = board.getCastlingRights();
+        int home = white ? Bitboards.square(1, 5) : Bitboards.square(8, 5);
+        if (king != home || (rights & (white ? ChessBoard.WHITE_KINGSIDE | ChessBoard.WHITE_QUEENSIDE
+                : ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE)) == 0) {
+            return;
+        }
+        Bitboards bitboards = board.bitboards();
+        ChessGame.TeamColor them = opponent(us);
+        long rooks = bitboards.pieces(us, ChessPiece.PieceType.ROOK);
+        long occupied = bitboards.occupied();
+        long withoutKing = occupied & ~Bitboards.bit(king);
+
+        if ((rights & (white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE)) != 0
+                && (rooks & Bitboards.bit(home + 3)) != 0
+                && (occupied & (Bitboards.bit(home + 1) | Bitboards.bit(home + 2))) == 0
+                && !isAttacked(bitboards, home + 1, withoutKing, them)
+                && !isAttacked(bitboards, home + 2, withoutKing, them)) {
+            moves.add(Move.of(home, home + 2, Move.KING_CASTLE));
+        }
+        if ((rights & (white ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE)) != 0
+                && (rooks & Bitboards.bit(home - 4)) != 0
+                && (occupied & (Bitboards.bit(home - 1) | Bitboards.bit(home - 2) | Bitboards.bit(home - 3))) == 0
+                && !isAttacked(bitboards, home - 1, withoutKing, them)
+                && !isAttacked(bitboards, home - 2, withoutKing, them)) {
+            moves.add(Move.of(home, home - 2, Move.QUEEN_CASTLE));
+        }
+    }
+
+    /**
+     * Finds the en passant captures of the pawns on movers. Each is tested by playing it on
+     * the occupancy, which covers checks, pins and the rank pin where both pawns leave the
+     * king's rank at once.
+     *
+     * @param moves the list to add the captures to, or null to stop at the first one
+     * @return true if there is at least one legal en passant capture
+     */
+    private static boolean enPassant(ChessBoard board, ChessGame.TeamColor us, int king, long movers, MoveList moves) {
+        int target = board.getEnPassantSquare();
+        if (target < 0 || Bitboards.row(target) != (us == ChessGame.TeamColor.WHITE ? 6 : 3)) {
+            return false;
+        }
+        Bitboards bitboards = board.bitboards();
+        ChessGame.TeamColor them = opponent(us);
+        int victim = target + (us == ChessGame.TeamColor.WHITE ? -8 : 8);
+        boolean found = false;
+        long capturers = Attacks.pawn(them, target) & bitboards.pieces(us, ChessPiece.PieceType.PAWN) & movers;
+        for (; capturers != 0; capturers &= capturers - 1) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            long occupied = bitboards.occupied() ^ Bitboards.bit(from) ^ Bitboards.bit(target) ^ Bitboards.bit(victim);
+            if (king >= 0 && (attackersTo(bitboards, king, occupied, them) & ~Bitboards.bit(victim)) != 0) {
+                continue;
+            }
+            if (moves == null) {
+                return true;
+            }
+            moves.add(Move.of(from, target, Move.EN_PASSANT));
+            found = true;
+        }
+        return found;
+    }
+
+    /**
+     * Determines if a side has any legal move, using the same masks as
+     * {@link #generate(ChessBoard, ChessGame.TeamColor, MoveList)} but only testing whether
+     * each piece has a target. Stops at the first piece that can move and allocates nothing.
+     *
+     * @param board the board to test
+     * @param us    the side to move
+     * @return true if us has at least one legal move
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor us) {
+        Bitboards bitboards = board.bitboards();
+        ChessGame.TeamColor them = opponent(us);
+        long ours = bitboards.occupancy(us);
+        long theirs = bitboards.occupancy(them);
+        long occupied = bitboards.occupied();
+        int king = bitboards.kingSquare(us);
+
+        long targets = ~ours;
+        long pinned = 0L;
+        long movers = ours;
+        if (king >= 0) {
+            long withoutKing = occupied & ~Bitboards.bit(king);
+            for (long to = Attacks.king(king) & ~ours; to != 0; to &= to - 1) {
+                if (!isAttacked(bitboards, Long.numberOfTrailingZeros(to), withoutKing, them)) {
+                    return true;
+                }
+            }
+            long checkers = attackersTo(bitboards, king, occupied, them);
+            if (Long.bitCount(checkers) > 1) {
+                return false;
+            }
+            if (checkers != 0) {
+                targets &= checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinned(bitboards, king, us);
+            movers &= ~Bitboards.bit(king);
+        }
+
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.KNIGHT) & ~pinned; pieces != 0; pieces &= pieces - 1) {
+            if ((Attacks.knight(Long.numberOfTrailingZeros(pieces)) & targets) != 0) {
+                return true;
+            }
+        }
+        long queens = bitboards.pieces(us, ChessPiece.PieceType.QUEEN);
+        for (long pieces = movers & (bitboards.pieces(us, ChessPiece.PieceType.BISHOP) | queens); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            if ((Attacks.bishop(from, occupied) & targets & pinLine(king, from, pinned)) != 0) {
+                return true;
+            }
+        }
+        for (long pieces = movers & (bitboards.pieces(us, ChessPiece.PieceType.ROOK) | queens); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            if ((Attacks.rook(from, occupied) & targets & pinLine(king, from, pinned)) != 0) {
+                return true;
+            }
+        }
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.KING); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            if ((Attacks.king(from) & targets & pinLine(king, from, pinned)) != 0) {
+                return true;
+            }
+        }
+
+        int forward = (us == ChessGame.TeamColor.WHITE) ? 8 : -8;
+        int startRow = (us == ChessGame.TeamColor.WHITE) ? 2 : 7;
+        for (long pieces = movers & bitboards.pieces(us, ChessPiece.PieceType.PAWN); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long allowed = targets & pinLine(king, from, pinned);
+            int to = from + forward;
+            if (to < 0 || to > 63) {
+                continue;
+            }
+            if ((Attacks.pawn(us, from) & theirs & allowed) != 0) {
+                return true;
+            }
+            if ((occupied & Bitboards.bit(to)) == 0) {
+                if ((allowed & Bitboards.bit(to)) != 0) {
+                    return true;
+                }
+                int twoAhead = to + forward;
+                if (Bitboards.row(from) == startRow && (occupied & Bitboards.bit(twoAhead)) == 0
+                        && (allowed & Bitboards.bit(twoAhead)) != 0) {
+                    return true;
+                }
+            }
+        }
+        // Castling needs a free square next to the king, which the king moves above already found
+        return enPassant(board, us, king, movers, null);
+    }
+
+    /**
+     * @return the line a pinned piece must stay on, or every square if it is not pinned
+     */
+    private static long pinLine(int king, int from, long pinned) {
+        return (pinned & Bitboards.bit(from)) != 0 ? Attacks.line(king, from) : ~0L;
+    }
+
+    private static void addMoves(MoveList moves, int from, long targets, long theirs) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.of(from, to, (theirs & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET));
+        }
+    }
+
+    private static void addPawnMoves(MoveList moves, int from, int to, int flags) {
+        int row = Bitboards.row(to);
+        if (row == 1 || row == 8) {
+            moves.add(Move.of(from, to, flags | Move.promotionFlags(ChessPiece.PieceType.QUEEN)));
+            moves.add(Move.of(from, to, flags | Move.promotionFlags(ChessPiece.PieceType.ROOK)));
+            moves.add(Move.of(from, to, flags | Move.promotionFlags(ChessPiece.PieceType.BISHOP)));
+            moves.add(Move.of(from, to, flags | Move.promotionFlags(ChessPiece.PieceType.KNIGHT)));
+        } else {
+            moves.add(Move.of(from, to, flags));
+        }
+    }
+
+    /**
+     * @return the pieces of the given color attacking a square, given an occupancy
+     */
+    static long attackersTo(Bitboards bitboards, int square, long occupied, ChessGame.TeamColor color) {
+        long queens = bitboards.pieces(color, ChessPiece.PieceType.QUEEN);
+        long diagonal = bitboards.pieces(color, ChessPiece.PieceType.BISHOP) | queens;
+        long straight = bitboards.pieces(color, ChessPiece.PieceType.ROOK) | queens;
+        return (Attacks.pawn(opponent(color), square) & bitboards.pieces(color, ChessPiece.PieceType.PAWN))
+                | (Attacks.knight(square) & bitboards.pieces(color, ChessPiece.PieceType.KNIGHT))
+                | (Attacks.king(square) & bitboards.pieces(color, ChessPiece.PieceType.KING))
+                | (Attacks.bishop(square, occupied) & diagonal)
+                | (Attacks.rook(square, occupied) & straight);
+    }
+
+    /**
+     * Looks outward from a square for a piece of the given color that attacks it, trying
+     * the table lookups before the slider rays and stopping at the first attacker found
+     *
+     * @return true if a piece of color byColor attacks square, given an occupancy
+     */
+    static boolean isAttacked(Bitboards bitboards, int square, long occupied, ChessGame.TeamColor byColor) {
+        if ((Attacks.pawn(opponent(byColor), square) & bitboards.pieces(byColor, ChessPiece.PieceType.PAWN)) != 0
+                || (Attacks.knight(square) & bitboards.pieces(byColor, ChessPiece.PieceType.KNIGHT)) != 0
+                || (Attacks.king(square) & bitboards.pieces(byColor, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = bitboards.pieces(byColor, ChessPiece.PieceType.QUEEN);
+        long diagonal = bitboards.pieces(byColor, ChessPiece.PieceType.BISHOP) | queens;
+        if (diagonal != 0 && (Attacks.bishop(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = bitboards.pieces(byColor, ChessPiece.PieceType.ROOK) | queens;
+        return straight != 0 && (Attacks.rook(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * @return the pieces of the given color that are the only blocker between their king
+     * and an enemy slider
+     */
+    static long pinned(Bitboards bitboards, int king, ChessGame.TeamColor us) {
+        ChessGame.TeamColor them = opponent(us);
+        long theirs = bitboards.occupancy(them);
+        long queens = bitboards.pieces(them, ChessPiece.PieceType.QUEEN);
+        // Enemy sliders that would attack the king if none of our pieces were in the way
+        long snipers = (Attacks.rook(king, theirs) & (bitboards.pieces(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, theirs) & (bitboards.pieces(them, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & bitboards.occupied();
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & bitboards.occupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    public static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,64 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of packed moves (see {@link Move}) backed by an int array.
+ * Search and perft keep one list per ply and {@link #clear()} it between
+ * positions, so generating moves does not allocate.
+ */
+public class MoveList {
+
+    // No legal chess position has more than 218 moves
+    private int[] moves = new int[256];
+    private int size;
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; ++i) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves converted to the public API form
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            result.add(Move.toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package chess;
+
+/**
+ * The outcome of {@link ChessGame#tryMove(ChessMove)}
+ *
+ * @param valid    whether the move was legal and played; nothing else is set if not
+ * @param status   the state of the game for the side now to move
+ * @param captured the piece taken by the move, or null
+ * @param check    whether the move gives check
+ */
+public record MoveResult(boolean valid, ChessGame.GameStatus status, ChessPiece captured, boolean check) {
+
+    public static final MoveResult INVALID = new MoveResult(false, null, null, false);
+
+    /**
+     * @return True if the move ended the game by checkmate or stalemate
+     */
+    public boolean isGameOver() {
+        return status == ChessGame.GameStatus.CHECKMATE || status == ChessGame.GameStatus.STALEMATE
+                || status == ChessGame.GameStatus.DRAW;
+    }
+}
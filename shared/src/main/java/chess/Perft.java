@@ -0,0 +1,214 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Move generator performance test: counts the leaf nodes of the legal move tree
+ * to a fixed depth. Matching the published counts for the reference positions
+ * proves the generator correct, and timing the count measures its throughput.
+ * <p>
+ * Usage: {@code Perft <depth> [fen]} prints the count for each root move and the
+ * total, and {@code Perft --suite [--parallel]} checks every reference position,
+ * optionally splitting each count across the common fork-join pool.
+ */
+public class Perft {
+
+    /**
+     * Standard perft positions with their published node counts, starting at depth 1.
+     * Kiwipete and positions 4 and 5 exercise castling, en passant and promotions.
+     */
+    public enum Reference {
+        START(Fen.START_POSITION,
+                20L, 400L, 8_902L, 197_281L, 4_865_609L),
+        KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                48L, 2_039L, 97_862L, 4_085_603L),
+        POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                14L, 191L, 2_812L, 43_238L, 674_624L),
+        POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                6L, 264L, 9_467L, 422_333L),
+        POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                44L, 1_486L, 62_379L, 2_103_487L),
+        POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                46L, 2_079L, 89_890L, 3_894_594L);
+
+        private final String fen;
+        private final long[] nodes;
+
+        Reference(String fen, long... nodes) {
+            this.fen = fen;
+            this.nodes = nodes;
+        }
+
+        public String getFen() {
+            return fen;
+        }
+
+        public int maxDepth() {
+            return nodes.length;
+        }
+
+        public long expectedNodes(int depth) {
+            return nodes[depth - 1];
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * @return the number of leaf nodes reached by playing every legal sequence of
+     * depth moves, starting with the side to move in game
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), game.getTeamTurn(), depth);
+    }
+
+    /**
+     * Counts the same nodes as {@link #perft(ChessGame, int)}, with one task per root move
+     * in the pool. Each task plays its move on its own copy of the board, so the game is
+     * only read and must not change until the count returns.
+     */
+    public static long perftParallel(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return perft(game, depth);
+        }
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, side, moves);
+        List<RootMove> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); ++i) {
+            tasks.add(new RootMove(board, side, moves.get(i), depth - 1));
+        }
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            long nodes = 0L;
+            for (RootMove task : ForkJoinTask.invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }));
+    }
+
+    /**
+     * @return the perft count below each legal root move
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        MoveList[] plies = plies(depth);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = plies[0];
+        MoveGenerator.generate(board, side, moves);
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            counts.put(Move.toChessMove(move), perft(board, MoveGenerator.opponent(side), depth - 1, plies, 1));
+            board.unmakeMove();
+        }
+        return counts;
+    }
+
+    static long perft(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        return perft(board, side, depth, plies(depth), 0);
+    }
+
+    /**
+     * One move list per ply, reused across siblings so the search allocates nothing
+     */
+    private static MoveList[] plies(int depth) {
+        MoveList[] plies = new MoveList[Math.max(1, depth)];
+        for (int i = 0; i < plies.length; ++i) {
+            plies[i] = new MoveList();
+        }
+        return plies;
+    }
+
+    private static long perft(ChessBoard board, ChessGame.TeamColor side, int depth, MoveList[] plies, int ply) {
+        if (depth == 0) {
+            return 1L;
+        }
+        MoveList moves = plies[ply];
+        moves.clear();
+        MoveGenerator.generate(board, side, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0L;
+        for (int i = 0; i < moves.size(); ++i) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, MoveGenerator.opponent(side), depth - 1, plies, ply + 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // ForkJoinTask is Serializable, but these tasks are never serialized
+    @SuppressWarnings("serial")
+    private static final class RootMove extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor side;
+        private final int move;
+        private final int depth;
+
+        RootMove(ChessBoard board, ChessGame.TeamColor side, int move, int depth) {
+            this.board = board;
+            this.side = side;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            ChessBoard copy = new ChessBoard(board);
+            copy.makeMove(move);
+            return perft(copy, MoveGenerator.opponent(side), depth);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length >= 1 && args[0].equals("--suite")) {
+            boolean parallel = args.length > 1 && args[1].equals("--parallel");
+            boolean passed = true;
+            for (Reference reference : Reference.values()) {
+                for (int depth = 1; depth <= reference.maxDepth(); ++depth) {
+                    long start = System.nanoTime();
+                    ChessGame game = Fen.load(reference.getFen());
+                    long nodes = parallel ? perftParallel(game, depth, ForkJoinPool.commonPool()) : perft(game, depth);
+                    long elapsed = System.nanoTime() - start;
+                    boolean ok = nodes == reference.expectedNodes(depth);
+                    passed &= ok;
+                    System.out.printf("%-10s depth %d: %,d nodes (expected %,d) %s  %s%n", reference, depth, nodes,
+                            reference.expectedNodes(depth), ok ? "ok" : "FAIL", rate(nodes, elapsed));
+                }
+            }
+            System.exit(passed ? 0 : 1);
+        }
+        if (args.length < 1) {
+            System.err.println("Usage: Perft <depth> [fen] | Perft --suite [--parallel]");
+            System.exit(2);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length)) : Fen.START_POSITION;
+        long start = System.nanoTime();
+        long total = 0L;
+        for (Map.Entry<ChessMove, Long> entry : divide(Fen.load(fen), depth).entrySet()) {
+            ChessMove move = entry.getKey();
+            System.out.printf("%s -> %s%s: %,d%n", move.getStartPosition(), move.getEndPosition(),
+                    move.getPromotionPiece() == null ? "" : " " + move.getPromotionPiece(), entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.printf("Nodes: %,d  %s%n", total, rate(total, System.nanoTime() - start));
+    }
+
+    private static String rate(long nodes, long nanos) {
+        return String.format("%.1f ms, %,.0f nodes/sec", nanos / 1e6, nodes / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,17 @@
+package chess;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read by a {@link PgnReader}
+ *
+ * @param tags   the tag pairs in file order, e.g. {@code Event}, {@code White}, {@code FEN}
+ * @param game   the position after the last move. Its board holds every move of the
+ *               game, so {@link PgnWriter} can write the game back out
+ * @param moves  the moves in the order they were played
+ * @param result {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *} for a game that
+ *               is unfinished or has no result
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game, List<ChessMove> moves, String result) {
+}
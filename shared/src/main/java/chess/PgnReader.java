@@ -0,0 +1,230 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads games from Portable Game Notation one at a time. Only the game being read is
+ * held in memory, so archives of any size can be streamed through {@link #next()}.
+ * <p>
+ * Each move is parsed as SAN against the position it is played in, starting from the
+ * {@code FEN} tag if there is one. Comments, variations and numeric annotations are
+ * skipped. A game with a malformed tag or FEN, or an illegal move, throws from
+ * {@link #next()} once the rest of it has been skipped, so the following call reads
+ * the next game.
+ * <p>
+ * Not thread safe.
+ */
+public class PgnReader implements Closeable {
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    // Reused for every token, so reading moves does not allocate strings
+    private final StringBuilder token = new StringBuilder(16);
+    private int gamesRead;
+
+    /**
+     * @param in the PGN text; it is read in blocks, so it does not need to be buffered
+     */
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the game has a malformed tag, FEN or move
+     */
+    public PgnGame next() throws IOException {
+        skipWhitespace();
+        if (peek() < 0) {
+            return null;
+        }
+        ++gamesRead;
+        Map<String, String> tags = new LinkedHashMap<>();
+        IllegalArgumentException error = null;
+        while (peek() == '[') {
+            try {
+                readTag(tags);
+            } catch (IllegalArgumentException e) {
+                // Keep reading to the end of the game before reporting it
+                if (error == null) {
+                    error = e;
+                }
+            }
+            skipWhitespace();
+        }
+
+        ChessGame game = null;
+        ChessBoard board = null;
+        ChessGame.TeamColor side = null;
+        if (error == null) {
+            String fen = tags.get("FEN");
+            try {
+                game = fen == null ? new ChessGame() : Fen.load(fen);
+                board = game.getBoard();
+                side = game.getTeamTurn();
+            } catch (IllegalArgumentException e) {
+                error = new IllegalArgumentException("Game " + gamesRead + ": bad FEN tag: " + e.getMessage(), e);
+            }
+        }
+        List<ChessMove> moves = new ArrayList<>();
+        String result = "*";
+
+        while (true) {
+            skipWhitespace();
+            int c = peek();
+            if (c < 0 || c == '[') {
+                break;
+            }
+            if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else {
+                readToken();
+                if (isResult(token)) {
+                    result = token.toString();
+                    break;
+                }
+                // A move number is digits and at least one dot, so "0-0" keeps its zeros
+                int digits = 0;
+                while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+                    ++digits;
+                }
+                int start = digits;
+                while (start < token.length() && token.charAt(start) == '.') {
+                    ++start;
+                }
+                if (start == digits) {
+                    start = 0;
+                }
+                if (start == token.length() || token.charAt(0) == '$' || error != null) {
+                    continue;
+                }
+                try {
+                    int move = San.parse(board, side, start == 0 ? token : token.subSequence(start, token.length()));
+                    board.makeMove(move);
+                    moves.add(Move.toChessMove(move));
+                    side = MoveGenerator.opponent(side);
+                } catch (IllegalArgumentException e) {
+                    error = new IllegalArgumentException("Game " + gamesRead + ", move " + (moves.size() + 1)
+                            + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        game.setTeamTurn(side);
+        return new PgnGame(tags, game, moves, result);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            ++position;
+        }
+        return c;
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && Character.isWhitespace(c)) {
+            ++position;
+        }
+    }
+
+    private void skipPast(char end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) {
+            // skip
+        }
+    }
+
+    // Variations nest and may hold comments, which may hold parentheses
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '(') {
+                ++depth;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            }
+        }
+    }
+
+    private void readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && "{;()[".indexOf(c) < 0) {
+            token.append((char) c);
+            ++position;
+        }
+        if (token.isEmpty()) {
+            // A stray closing parenthesis; drop it and leave the token empty
+            read();
+        }
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        read();
+        skipWhitespace();
+        StringBuilder name = new StringBuilder();
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            name.append((char) c);
+            ++position;
+        }
+        skipWhitespace();
+        c = read();
+        if (c != '"') {
+            if (c != ']') {
+                skipPast(']');
+            }
+            throw new IllegalArgumentException("Game " + gamesRead + ": bad tag " + name);
+        }
+        StringBuilder value = new StringBuilder();
+        while ((c = read()) >= 0 && c != '"') {
+            value.append((char) (c == '\\' ? read() : c));
+        }
+        skipPast(']');
+        tags.put(name.toString(), value.toString());
+    }
+
+    private static boolean isResult(CharSequence text) {
+        return "1-0".contentEquals(text) || "0-1".contentEquals(text)
+                || "1/2-1/2".contentEquals(text) || "*".contentEquals(text);
+    }
+}
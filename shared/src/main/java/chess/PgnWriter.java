@@ -0,0 +1,127 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games in Portable Game Notation, one after another, from the moves recorded
+ * on each game's board. Each game is written as it is replayed, so exporting many games
+ * only holds one in memory at a time.
+ * <p>
+ * Not thread safe.
+ */
+public class PgnWriter implements Closeable, Flushable {
+
+    // The Seven Tag Roster, which PGN requires first and in this order
+    private static final List<String> ROSTER = List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+    private static final int LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+    private final StringBuilder token = new StringBuilder(16);
+
+    /**
+     * @param out where to write; wrap it in a BufferedWriter when writing to a file or socket
+     */
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one game. The moves are those made on the game's board that it can still
+     * unmake, so a game restored from JSON starts at its current position with a
+     * {@code FEN} tag and no moves.
+     *
+     * @param tags   tag pairs to write; missing roster tags are written as unknown and
+     *               {@code Result}, {@code SetUp} and {@code FEN} are filled in here
+     * @param game   the game to write, which is left unchanged
+     * @param result {@code 1-0}, {@code 0-1}, {@code 1/2-1/2}, or {@code *} if unfinished
+     * @throws IOException if writing fails
+     */
+    public void write(Map<String, String> tags, ChessGame game, String result) throws IOException {
+        ChessBoard board = new ChessBoard(game.getBoard());
+        int[] moves = new int[board.historySize()];
+        for (int i = 0; i < moves.length; ++i) {
+            moves[i] = board.historyMove(i);
+        }
+        for (int i = 0; i < moves.length; ++i) {
+            board.unmakeMove();
+        }
+        ChessGame.TeamColor side = game.getTeamTurn();
+        if (moves.length % 2 == 1) {
+            side = MoveGenerator.opponent(side);
+        }
+        ChessGame start = new ChessGame();
+        start.setBoard(board);
+        start.setTeamTurn(side);
+
+        for (String name : ROSTER) {
+            String value = name.equals("Result") ? result : tags.get(name);
+            writeTag(name, value != null ? value : name.equals("Date") ? "????.??.??" : "?");
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!ROSTER.contains(tag.getKey()) && !tag.getKey().equals("SetUp") && !tag.getKey().equals("FEN")) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        String fen = start.toFen();
+        if (!fen.equals(Fen.START_POSITION)) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", fen);
+        }
+        out.write('\n');
+
+        line.setLength(0);
+        for (int i = 0; i < moves.length; ++i) {
+            token.setLength(0);
+            if (side == ChessGame.TeamColor.WHITE) {
+                token.append(board.getFullmoveNumber()).append(". ");
+            } else if (i == 0) {
+                token.append(board.getFullmoveNumber()).append("... ");
+            }
+            San.write(board, side, moves[i], token);
+            board.makeMove(moves[i]);
+            side = MoveGenerator.opponent(side);
+            append(token);
+        }
+        token.setLength(0);
+        append(token.append(result));
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // Starts a new line rather than let a move run past the line length
+    private void append(CharSequence text) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + text.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(text);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        out.write(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        out.write("\"]\n");
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+/**
+ * Immutable snapshot of a game: the piece placement, the side to move, and the
+ * castling rights, en passant square and move counters of the board.
+ * <p>
+ * A {@link ChessGame} publishes a new snapshot after every move, so other threads
+ * can read or serialize a consistent position while the game keeps changing.
+ * A move only touches the ranks of its start and end squares, so each snapshot
+ * copies those ranks from the board and shares the other rank arrays with the
+ * snapshot before it. Rank arrays are never written once a snapshot holds them.
+ */
+public final class Position {
+
+    private final ChessPiece[][] ranks;
+    private final ChessGame.TeamColor sideToMove;
+    private final long key;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+
+    private Position(ChessPiece[][] ranks, ChessBoard board, ChessGame.TeamColor sideToMove) {
+        this.ranks = ranks;
+        this.sideToMove = sideToMove;
+        this.key = ChessGame.positionKey(board, sideToMove);
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantSquare = board.getEnPassantSquare();
+        this.halfmoveClock = board.getHalfmoveClock();
+        this.fullmoveNumber = board.getFullmoveNumber();
+    }
+
+    /**
+     * @return a snapshot copying every rank of a game's board
+     */
+    static Position of(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        ChessPiece[][] squares = board.piecePositions;
+        ChessPiece[][] ranks = new ChessPiece[8][];
+        for (int row = 0; row < 8; ++row) {
+            ranks[row] = squares[row].clone();
+        }
+        return new Position(ranks, board, sideToMove);
+    }
+
+    /**
+     * @return the snapshot after a move between two rows (zero-based) of a game's
+     * board, copying those rows and sharing the rest with this snapshot. Castling and
+     * en passant only change squares on those two rows.
+     */
+    Position after(ChessBoard board, ChessGame.TeamColor sideToMove, int fromRow, int toRow) {
+        ChessPiece[][] squares = board.piecePositions;
+        ChessPiece[][] next = ranks.clone();
+        next[fromRow] = squares[fromRow].clone();
+        if (toRow != fromRow) {
+            next[toRow] = squares[toRow].clone();
+        }
+        return new Position(next, board, sideToMove);
+    }
+
+    /**
+     * @return the piece on a square, or null if it is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        return ranks[position.getRow() - 1][position.getColumn() - 1];
+    }
+
+    /**
+     * @return which team is to move
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return sideToMove;
+    }
+
+    /**
+     * @return the position key of the game when the snapshot was taken
+     * (see {@link ChessGame#positionKey()})
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return the castling rights as a mask of the ChessBoard castling bits
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn may capture en passant onto, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the number of halfmoves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the full move being played, starting at 1
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return a new game set up in this position, which the caller is free to change.
+     * The game has no move history, so repetitions before the snapshot are not counted.
+     */
+    public ChessGame toGame() {
+        ChessPiece[][] squares = new ChessPiece[8][];
+        for (int row = 0; row < 8; ++row) {
+            squares[row] = ranks[row].clone();
+        }
+        ChessBoard board = new ChessBoard();
+        board.piecePositions = squares;
+        board.setCastlingRights(castlingRights);
+        board.setEnPassantSquare(enPassantSquare);
+        board.setHalfmoveClock(halfmoveClock);
+        board.setFullmoveNumber(fullmoveNumber);
+        return new ChessGame(board, sideToMove);
+    }
+}
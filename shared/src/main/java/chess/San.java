@@ -0,0 +1,196 @@
+package chess;
+
+/**
+ * Reads and writes moves in Standard Algebraic Notation, e.g. {@code Nbd7}, {@code exd6},
+ * {@code e8=Q+} or {@code O-O-O}, as used in PGN.
+ * <p>
+ * Both directions match against the legal moves of the position, so a move is only
+ * disambiguated when another piece of the same type could reach the same square.
+ */
+public class San {
+
+    private San() {
+    }
+
+    /**
+     * @param board the position before the move
+     * @param side  the side making the move
+     * @param san   the move, with or without check marks and annotations such as {@code !?}
+     * @return the packed move (see {@link Move})
+     * @throws IllegalArgumentException if the text is not a legal move in the position,
+     *                                  or could be more than one
+     */
+    public static int parse(ChessBoard board, ChessGame.TeamColor side, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            --end;
+        }
+        MoveList legal = new MoveList();
+        MoveGenerator.generate(board, side, legal);
+
+        int castle = castle(san, end);
+        if (castle != Move.NONE) {
+            for (int i = 0; i < legal.size(); ++i) {
+                if (Move.flags(legal.get(i)) == castle) {
+                    return legal.get(i);
+                }
+            }
+            throw bad(san);
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (end > 0 && "KQRBN".indexOf(san.charAt(0)) >= 0) {
+            type = Fen.pieceType(san.charAt(0));
+            start = 1;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (end >= 2 && "QRBN".indexOf(san.charAt(end - 1)) >= 0) {
+            promotion = Fen.pieceType(san.charAt(end - 1));
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end - start < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            throw bad(san);
+        }
+        int to = Bitboards.square(san.charAt(end - 1) - '0', san.charAt(end - 2) - 'a' + 1);
+
+        // Whatever is left between the piece and the destination: a file, a rank and 'x'
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; ++i) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromFile = c - 'a' + 1;
+            } else if (isRank(c)) {
+                fromRank = c - '0';
+            } else if (c != 'x' && c != ':') {
+                throw bad(san);
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < legal.size(); ++i) {
+            int move = legal.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || board.pieceAt(from).getPieceType() != type
+                    || Move.promotion(move) != promotion || Move.isCastle(move)
+                    || (fromFile >= 0 && Bitboards.column(from) != fromFile)
+                    || (fromRank >= 0 && Bitboards.row(from) != fromRank)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                throw new IllegalArgumentException("Ambiguous move: " + san);
+            }
+            found = move;
+        }
+        if (found == Move.NONE) {
+            throw bad(san);
+        }
+        return found;
+    }
+
+    /**
+     * @param board the position before the move, left unchanged
+     * @param side  the side making the move
+     * @param move  a legal packed move
+     * @return the move in SAN, with {@code +} or {@code #} if it gives check or mate
+     */
+    public static String write(ChessBoard board, ChessGame.TeamColor side, int move) {
+        return write(board, side, move, new StringBuilder(8)).toString();
+    }
+
+    /**
+     * Appends the SAN of a legal move to out
+     *
+     * @return out
+     */
+    public static StringBuilder write(ChessBoard board, ChessGame.TeamColor side, int move, StringBuilder out) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.flags(move) == Move.KING_CASTLE) {
+            out.append("O-O");
+        } else if (Move.flags(move) == Move.QUEEN_CASTLE) {
+            out.append("O-O-O");
+        } else {
+            ChessPiece.PieceType type = board.pieceAt(from).getPieceType();
+            if (type == ChessPiece.PieceType.PAWN) {
+                if (Move.isCapture(move)) {
+                    out.append((char) ('a' + Bitboards.column(from) - 1));
+                }
+            } else {
+                out.append(Character.toUpperCase(Fen.pieceChar(board.pieceAt(from))));
+                disambiguate(board, side, move, type, out);
+            }
+            if (Move.isCapture(move)) {
+                out.append('x');
+            }
+            out.append((char) ('a' + Bitboards.column(to) - 1)).append((char) ('0' + Bitboards.row(to)));
+            if (Move.isPromotion(move)) {
+                out.append('=').append(Character.toUpperCase(Fen.pieceChar(ChessPiece.of(side, Move.promotion(move)))));
+            }
+        }
+
+        ChessGame.TeamColor them = MoveGenerator.opponent(side);
+        board.makeMove(move);
+        int king = board.bitboards().kingSquare(them);
+        if (king >= 0 && board.isSquareAttacked(king, side)) {
+            out.append(MoveGenerator.hasLegalMove(board, them) ? '+' : '#');
+        }
+        board.unmakeMove();
+        return out;
+    }
+
+    // Adds the start file, rank or both when another piece of the type can reach the square
+    private static void disambiguate(ChessBoard board, ChessGame.TeamColor side, int move,
+                                     ChessPiece.PieceType type, StringBuilder out) {
+        int from = Move.from(move);
+        MoveList legal = new MoveList();
+        MoveGenerator.generate(board, side, legal);
+        boolean other = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legal.size(); ++i) {
+            int candidate = Move.from(legal.get(i));
+            if (candidate == from || Move.to(legal.get(i)) != Move.to(move)
+                    || board.pieceAt(candidate).getPieceType() != type) {
+                continue;
+            }
+            other = true;
+            sameFile |= Bitboards.column(candidate) == Bitboards.column(from);
+            sameRank |= Bitboards.row(candidate) == Bitboards.row(from);
+        }
+        if (other && (!sameFile || sameRank)) {
+            out.append((char) ('a' + Bitboards.column(from) - 1));
+        }
+        if (other && sameFile) {
+            out.append((char) ('0' + Bitboards.row(from)));
+        }
+    }
+
+    private static int castle(CharSequence san, int end) {
+        if (end == 3 && isCastleMark(san, 0) && san.charAt(1) == '-' && isCastleMark(san, 2)) {
+            return Move.KING_CASTLE;
+        }
+        if (end == 5 && isCastleMark(san, 0) && san.charAt(1) == '-' && isCastleMark(san, 2)
+                && san.charAt(3) == '-' && isCastleMark(san, 4)) {
+            return Move.QUEEN_CASTLE;
+        }
+        return Move.NONE;
+    }
+
+    private static boolean isCastleMark(CharSequence san, int index) {
+        return san.charAt(index) == 'O' || san.charAt(index) == '0';
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+    private static IllegalArgumentException bad(CharSequence san) {
+        return new IllegalArgumentException("Illegal move: " + san);
+    }
+}
@@ -0,0 +1,106 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Reusable stack of undo records for {@link ChessBoard#makeMove(ChessMove)}.
+ * Records are stored in parallel arrays that only grow, so pushing and popping
+ * does not allocate once the stack has reached its working depth.
+ * <p>
+ * The key stored with each record is the position before that move, so the stack
+ * doubles as the position history used to detect repetitions.
+ */
+class UndoStack {
+
+    private int[] moves = new int[32];
+    private ChessPiece[] moved = new ChessPiece[32];
+    private ChessPiece[] captured = new ChessPiece[32];
+    private int[] states = new int[32];
+    private long[] keys = new long[32];
+    private int size;
+
+    UndoStack() {
+    }
+
+    UndoStack(UndoStack other) {
+        moves = other.moves.clone();
+        moved = other.moved.clone();
+        captured = other.captured.clone();
+        states = other.states.clone();
+        keys = other.keys.clone();
+        size = other.size;
+    }
+
+    /**
+     * @param move    the packed move that was played (see {@link Move})
+     * @param piece   piece that moved, before any promotion
+     * @param capture piece that was captured, or null
+     * @param state   castling rights, en passant square and halfmove clock before the move
+     * @param key     Zobrist key of the board before the move
+     */
+    void push(int move, ChessPiece piece, ChessPiece capture, int state, long key) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            moved = Arrays.copyOf(moved, size * 2);
+            captured = Arrays.copyOf(captured, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        moves[size] = move;
+        moved[size] = piece;
+        captured[size] = capture;
+        states[size] = state;
+        keys[size] = key;
+        ++size;
+    }
+
+    void pop() {
+        --size;
+        moved[size] = null;
+        captured[size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(moved, 0, size, null);
+        Arrays.fill(captured, 0, size, null);
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int move() {
+        return moves[size - 1];
+    }
+
+    ChessPiece moved() {
+        return moved[size - 1];
+    }
+
+    ChessPiece captured() {
+        return captured[size - 1];
+    }
+
+    int state() {
+        return states[size - 1];
+    }
+
+    /**
+     * @return the index-th move on the stack, the oldest first
+     */
+    int move(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @return the key of the board before the index-th move on the stack
+     */
+    long key(int index) {
+        return keys[index];
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the key for
+ * every (piece, square) on the board, the castling rights and en passant file, plus
+ * {@link #SIDE} when black is to move, so a move updates it with a couple of XORs
+ * instead of rehashing the whole board.
+ * <p>
+ * Keys come from a fixed seed, so equal positions have equal keys in every JVM and
+ * keys can be stored or shared between processes.
+ */
+public class Zobrist {
+
+    public static final long SIDE;
+
+    private static final long[][] PIECES = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+
+    static {
+        long state = 0x2545F4914F6CDD1DL;
+        for (long[] squares : PIECES) {
+            for (int square = 0; square < 64; ++square) {
+                state += 0x9E3779B97F4A7C15L;
+                squares[square] = mix(state);
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE = mix(state);
+        // Drawn after the piece and side keys so those keep their values
+        for (int rights = 1; rights < CASTLING.length; ++rights) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[rights] = mix(state);
+        }
+        for (int file = 0; file < EN_PASSANT.length; ++file) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT[file] = mix(state);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long piece(ChessPiece piece, int square) {
+        return PIECES[Bitboards.index(piece.getTeamColor(), piece.getPieceType())][square];
+    }
+
+    /**
+     * @param rights castling rights as a mask of the ChessBoard castling bits
+     * @return the key for the set of rights, 0 when no side may castle
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param square the en passant target square, or -1
+     * @return the key for the file of the square, 0 when there is none
+     */
+    public static long enPassant(int square) {
+        return square < 0 ? 0L : EN_PASSANT[square & 7];
+    }
+}
@@ -0,0 +1,169 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.Move;
+import chess.PgnGame;
+import chess.PgnReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} file from games in PGN.
+ * <p>
+ * Every move in the first plies of a game is added with a weight for how the game
+ * went for the side that played it: 2 for a win, 1 for a draw or an unknown result.
+ * Moves of the losing side are left out. Weights are summed over all games and
+ * scaled down if needed to fit the 16 bits of an entry.
+ * <p>
+ * Usage: {@code BookBuilder [--plies n] <book> <pgn>...}
+ */
+public class BookBuilder {
+
+    /** How many plies of each game go into the book unless told otherwise */
+    public static final int DEFAULT_PLIES = 20;
+
+    private record BookMove(long key, int move) {
+    }
+
+    private final int maxPlies;
+    private final Map<BookMove, Integer> weights = new HashMap<>();
+    private final List<String> skipped = new ArrayList<>();
+
+    public BookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds the opening moves of one game
+     */
+    public void add(PgnGame pgn) {
+        String fen = pgn.tags().get("FEN");
+        ChessGame game = fen == null ? new ChessGame() : Fen.load(fen);
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        int plies = Math.min(maxPlies, pgn.moves().size());
+        for (int ply = 0; ply < plies; ++ply) {
+            ChessMove chessMove = pgn.moves().get(ply);
+            int move = Move.fromChessMove(board, chessMove);
+            int weight = weight(pgn.result(), side);
+            if (weight > 0) {
+                weights.merge(new BookMove(game.positionKey(), move), weight, Integer::sum);
+            }
+            board.makeMove(move);
+            side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            game.setTeamTurn(side);
+        }
+    }
+
+    /**
+     * Adds every game a reader returns, skipping games with a malformed tag or FEN or an
+     * illegal move; see {@link #skipped()} for why each was skipped
+     *
+     * @return the number of games added
+     */
+    public int addAll(PgnReader reader) throws IOException {
+        int added = 0;
+        while (true) {
+            PgnGame game;
+            try {
+                game = reader.next();
+            } catch (IllegalArgumentException e) {
+                skipped.add(e.getMessage());
+                continue;
+            }
+            if (game == null) {
+                return added;
+            }
+            add(game);
+            ++added;
+        }
+    }
+
+    /**
+     * @return why each game left out by {@link #addAll(PgnReader)} was skipped, in order
+     */
+    public List<String> skipped() {
+        return skipped;
+    }
+
+    /**
+     * @return the number of entries the book will have
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Writes the book, sorted for {@link OpeningBook#find(long)}
+     */
+    public void write(Path path) throws IOException {
+        List<Map.Entry<BookMove, Integer>> entries = new ArrayList<>(weights.entrySet());
+        entries.sort(Comparator.<Map.Entry<BookMove, Integer>, Long>comparing(e -> e.getKey().key(), Long::compareUnsigned)
+                .thenComparing(Map.Entry::getValue, Comparator.reverseOrder()));
+        int maxWeight = 0;
+        for (Map.Entry<BookMove, Integer> entry : entries) {
+            maxWeight = Math.max(maxWeight, entry.getValue());
+        }
+        double scale = maxWeight > 0xFFFF ? (double) 0xFFFF / maxWeight : 1.0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * OpeningBook.ENTRY_BYTES);
+        for (Map.Entry<BookMove, Integer> entry : entries) {
+            buffer.putLong(entry.getKey().key());
+            buffer.putShort((short) entry.getKey().move());
+            buffer.putShort((short) Math.max(1, (int) (entry.getValue() * scale)));
+            buffer.putInt(0);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static int weight(String result, ChessGame.TeamColor side) {
+        return switch (result) {
+            case "1-0" -> side == ChessGame.TeamColor.WHITE ? 2 : 0;
+            case "0-1" -> side == ChessGame.TeamColor.BLACK ? 2 : 0;
+            default -> 1;
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = DEFAULT_PLIES;
+        int first = 0;
+        if (args.length >= 2 && args[0].equals("--plies")) {
+            plies = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        if (args.length - first < 2) {
+            System.err.println("Usage: BookBuilder [--plies n] <book> <pgn>...");
+            System.exit(2);
+        }
+        BookBuilder builder = new BookBuilder(plies);
+        for (int i = first + 1; i < args.length; ++i) {
+            try (PgnReader reader = new PgnReader(Files.newBufferedReader(Path.of(args[i])))) {
+                System.out.printf("%s: %,d games%n", args[i], builder.addAll(reader));
+            }
+        }
+        for (String reason : builder.skipped()) {
+            System.err.println("Skipped: " + reason);
+        }
+        builder.write(Path.of(args[first]));
+        System.out.printf("Wrote %,d entries to %s%n", builder.size(), args[first]);
+    }
+}
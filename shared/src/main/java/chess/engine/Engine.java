@@ -0,0 +1,95 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a {@link Search} on several threads at once (Lazy SMP). Every thread searches
+ * the whole tree; they only cooperate through a shared {@link TranspositionTable},
+ * where each finds results the others have stored. Helpers start at alternating depths
+ * so they do not all search the same nodes in the same order. The calling thread runs
+ * the main search, whose move is the result; helpers stop as soon as it finishes.
+ * <p>
+ * An Engine may search several games from different threads at once, but they then
+ * share one table, which is best kept for games that are close to each other.
+ */
+public class Engine implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final ExecutorService helpers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-helper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param megabytes the size of the shared transposition table
+     */
+    public Engine(int megabytes) {
+        table = new TranspositionTable(megabytes);
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Searches the position of a game for the side to move
+     *
+     * @param game    the game to search, which is left unchanged
+     * @param limits  when to stop; each thread counts a node limit separately
+     * @param threads the number of threads, including the calling thread
+     * @return the best move of the main search, with the nodes of every thread
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        Search main = new Search(table, 0, stop);
+        CountDownLatch finished = new CountDownLatch(threads - 1);
+        AtomicLong helperNodes = new AtomicLong();
+        for (int i = 1; i < threads; ++i) {
+            Search helper = new Search(table, i, stop);
+            helpers.execute(() -> {
+                try {
+                    helperNodes.addAndGet(helper.search(game, limits).nodes());
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        SearchResult result;
+        try {
+            result = main.search(game, limits);
+        } finally {
+            stop.set(true);
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (InterruptedException e) {
+                // Helpers stop promptly once the flag is set, so finish waiting for them
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(),
+                result.nodes() + helperNodes.get(), result.elapsedNanos());
+    }
+
+    @Override
+    public void close() {
+        helpers.shutdownNow();
+    }
+}
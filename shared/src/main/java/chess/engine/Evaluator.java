@@ -0,0 +1,43 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation of a position: material and piece-square values, blended from a
+ * middlegame score to an endgame score as pieces come off the board.
+ * <p>
+ * The board keeps both scores and the game phase up to date as pieces move (see
+ * {@link Bitboards#middlegame()}), so an evaluation is a few arithmetic operations.
+ */
+public class Evaluator {
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN. Used to
+    // order captures, where a single value per piece is enough
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return the score of the position for side, positive when side is ahead
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        Bitboards bitboards = board.bitboards();
+        // Promotions can take the phase past the starting material
+        int phase = Math.min(bitboards.phase(), PieceSquareTables.TOTAL_PHASE);
+        int score = (bitboards.middlegame() * phase + bitboards.endgame() * (PieceSquareTables.TOTAL_PHASE - phase))
+                / PieceSquareTables.TOTAL_PHASE;
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the value of a piece type in centipawns, 0 for the king
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,201 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book in the layout of a Polyglot book: 16-byte big-endian
+ * entries of position key (8 bytes), move (2), weight (2) and a learn field (4,
+ * unused), sorted by key as an unsigned number and then by weight, highest first.
+ * Unlike Polyglot, the key is our {@link ChessGame#positionKey()} and the move is
+ * a packed {@link Move}, so a lookup needs no conversion. {@link BookBuilder} writes
+ * these files from PGN.
+ * <p>
+ * The file is memory-mapped and searched in place, so a book of any size costs no
+ * heap and a lookup is a binary search over the mapped pages. A book is safe to
+ * share between threads; {@link #shared()} is the one every game in the JVM uses.
+ * A book that could not be read is empty and says why in {@link #loadError()}, so
+ * the caller decides whether to report it.
+ */
+public final class OpeningBook {
+
+    /** The system property naming the book file {@link #shared()} loads */
+    public static final String BOOK_PROPERTY = "chess.book";
+    static final int ENTRY_BYTES = 16;
+
+    private static final OpeningBook EMPTY = new OpeningBook(ByteBuffer.allocate(0), null);
+    // One move list per thread for checking book moves are legal
+    private static final ThreadLocal<MoveList> MOVES = ThreadLocal.withInitial(MoveList::new);
+
+    // Only absolute reads are used, so threads never disturb each other's position
+    private final ByteBuffer entries;
+    private final int size;
+    private final String loadError;
+
+    private OpeningBook(ByteBuffer entries, String loadError) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+        this.loadError = loadError;
+    }
+
+    private static final class Shared {
+        static final OpeningBook BOOK = loadShared();
+
+        private static OpeningBook loadShared() {
+            String path = System.getProperty(BOOK_PROPERTY);
+            return path == null ? EMPTY : openOrEmpty(Path.of(path));
+        }
+    }
+
+    /**
+     * @return the book named by the {@value #BOOK_PROPERTY} system property, loaded on
+     * first use, or an empty book if the property is not set or the file cannot be read
+     * (see {@link #loadError()})
+     */
+    public static OpeningBook shared() {
+        return Shared.BOOK;
+    }
+
+    /**
+     * Maps a book file into memory. The mapping stays valid after the file is closed.
+     *
+     * @throws IllegalArgumentException if the file is not a whole number of entries or
+     *                                  is too large to map at once (over 2 GB)
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_BYTES != 0 || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not an opening book: " + path + " is " + length + " bytes");
+            }
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length), null);
+        }
+    }
+
+    /**
+     * Maps a book file into memory like {@link #open(Path)}, without failing
+     *
+     * @return the book, or an empty book whose {@link #loadError()} says why the file
+     * could not be read
+     */
+    public static OpeningBook openOrEmpty(Path path) {
+        try {
+            return open(path);
+        } catch (IOException | IllegalArgumentException e) {
+            return new OpeningBook(ByteBuffer.allocate(0), "Could not load the opening book " + path + ": " + e);
+        }
+    }
+
+    /**
+     * @return why this book could not be read, or null if it was read or never asked for
+     */
+    public String loadError() {
+        return loadError;
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the first entry for the position, or -1 if the book has none
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < size && key(low) == key ? low : -1;
+    }
+
+    public long key(int entry) {
+        return entries.getLong(entry * ENTRY_BYTES);
+    }
+
+    /**
+     * @return the packed move of an entry
+     */
+    public int move(int entry) {
+        return entries.getShort(entry * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    public int weight(int entry) {
+        return entries.getShort(entry * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    /**
+     * @return the legal book move with the highest weight for the position, or
+     * {@link Move#NONE} if there is none
+     */
+    public int bestMove(ChessGame game) {
+        MoveList legal = legalMoves(game);
+        int entry = find(game.positionKey());
+        if (entry >= 0) {
+            for (long key = key(entry); entry < size && key(entry) == key; ++entry) {
+                if (legal.contains(move(entry))) {
+                    return move(entry);
+                }
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Picks one of the legal book moves for the position, each with a chance in
+     * proportion to its weight
+     *
+     * @return the move, or {@link Move#NONE} if the book has no legal move for the position
+     */
+    public int pick(ChessGame game, RandomGenerator random) {
+        long key = game.positionKey();
+        int first = find(key);
+        if (first < 0) {
+            return Move.NONE;
+        }
+        MoveList legal = legalMoves(game);
+        int total = 0;
+        for (int entry = first; entry < size && key(entry) == key; ++entry) {
+            if (legal.contains(move(entry))) {
+                total += weight(entry);
+            }
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        int chosen = random.nextInt(total);
+        for (int entry = first; ; ++entry) {
+            if (legal.contains(move(entry))) {
+                chosen -= weight(entry);
+                if (chosen < 0) {
+                    return move(entry);
+                }
+            }
+        }
+    }
+
+    // A different position can share a key, so book moves are only played if legal
+    private static MoveList legalMoves(ChessGame game) {
+        MoveList moves = MOVES.get();
+        moves.clear();
+        MoveGenerator.generate(game.getBoard(), game.getTeamTurn(), moves);
+        return moves;
+    }
+}
@@ -0,0 +1,395 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Zobrist;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chooses a move by iterative-deepening alpha-beta search.
+ * <ul>
+ *     <li>principal variation search: after the first move of a node, each move is
+ *     searched with a null window and only re-searched if it beats the best so far</li>
+ *     <li>quiescence search on captures and promotions at the horizon, so positions
+ *     are only evaluated once the exchanges on the board have settled</li>
+ *     <li>a {@link TranspositionTable} cuts off positions already searched deep enough
+ *     and supplies the best move found for them before</li>
+ *     <li>moves are tried best move of the last iteration or the table first, then
+ *     captures by most valuable victim and least valuable attacker, then two killer
+ *     moves per ply, then quiet moves by history score</li>
+ * </ul>
+ * The search runs on its own copy of the board, so the game is only read. A Search
+ * reuses its move lists and tables between calls and is not thread safe; use one per
+ * thread, and {@link #stop()} or interrupt the searching thread to end a search early.
+ * {@link Engine} runs several at once on a shared table.
+ */
+public class Search {
+
+    private static final int MAX_PLY = 128;
+    public static final int MATE = 32_000;
+    /** Scores at or beyond this are forced mates */
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+    private static final int INFINITY = MATE + 1;
+    // How often to look at the clock, in nodes
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int PREVIOUS_BEST = 1 << 30;
+    private static final int CAPTURE = 1 << 28;
+    private static final int KILLER = 1 << 27;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // Indexed by color, then from * 64 + to
+    private final int[][] history = new int[2][64 * 64];
+
+    private final TranspositionTable table;
+    // Helpers of a parallel search share the stop flag of the main search and start at
+    // alternating depths, so they fill the table with different parts of the tree
+    private final AtomicBoolean stopRequested;
+    private final int helperIndex;
+
+    private ChessBoard board;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean canAbort;
+    private boolean aborted;
+    private int iterationBest;
+
+    /**
+     * Creates a search with its own 1 MB transposition table
+     */
+    public Search() {
+        this(new TranspositionTable(1));
+    }
+
+    /**
+     * @param table the transposition table to use, which may be shared with other searches
+     */
+    public Search(TranspositionTable table) {
+        this(table, 0, new AtomicBoolean());
+    }
+
+    Search(TranspositionTable table, int helperIndex, AtomicBoolean stopRequested) {
+        this.table = table;
+        this.helperIndex = helperIndex;
+        this.stopRequested = stopRequested;
+        for (int ply = 0; ply < MAX_PLY; ++ply) {
+            moveLists[ply] = new MoveList();
+            orderScores[ply] = new int[256];
+        }
+    }
+
+    /**
+     * Searches the position of a game for the side to move
+     *
+     * @param game   the game to search, which is left unchanged
+     * @param limits when to stop
+     * @return the best move found and statistics about the search
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        try {
+            return run(game, limits);
+        } finally {
+            // A stop is used up by the search it ended, so the next search runs in full
+            if (helperIndex == 0) {
+                stopRequested.set(false);
+            }
+        }
+    }
+
+    private SearchResult run(ChessGame game, SearchLimits limits) {
+        long start = System.nanoTime();
+        board = new ChessBoard(game.getBoard());
+        ChessGame.TeamColor side = game.getTeamTurn();
+        nodes = 0L;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+        canAbort = helperIndex > 0;
+        aborted = false;
+        for (int[] ply : killers) {
+            Arrays.fill(ply, Move.NONE);
+        }
+        for (int[] color : history) {
+            Arrays.fill(color, 0);
+        }
+
+        MoveList rootMoves = moveLists[0];
+        rootMoves.clear();
+        MoveGenerator.generate(board, side, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = inCheck(side) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0L, System.nanoTime() - start);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completed = 0;
+        for (int depth = 1 + (helperIndex & 1); depth <= maxDepth; ++depth) {
+            int score = searchRoot(side, depth, bestMove);
+            if (aborted) {
+                break;
+            }
+            bestMove = iterationBest;
+            bestScore = score;
+            completed = depth;
+            canAbort = true;
+            // Nothing to gain from searching deeper once a mate is found, or from a single reply
+            if (Math.abs(score) >= MATE_BOUND || rootMoves.size() == 1 || stopRequested.get()) {
+                break;
+            }
+        }
+        return new SearchResult(Move.toChessMove(bestMove), bestScore, completed, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Ends the current search as soon as possible. It still returns the best move of
+     * the last finished iteration. If no search is running, the next one stops after
+     * its first iteration.
+     */
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    private int searchRoot(ChessGame.TeamColor side, int depth, int previousBest) {
+        MoveList moves = moveLists[0];
+        scoreMoves(moves, orderScores[0], side, 0, previousBest);
+        int alpha = -INFINITY;
+        ChessGame.TeamColor them = MoveGenerator.opponent(side);
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = pickNext(moves, orderScores[0], i);
+            board.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(them, depth - 1, 1, -INFINITY, -alpha);
+            } else {
+                score = -search(them, depth - 1, 1, -alpha - 1, -alpha);
+                if (score > alpha && !aborted) {
+                    score = -search(them, depth - 1, 1, -INFINITY, -alpha);
+                }
+            }
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                iterationBest = move;
+            }
+        }
+        return alpha;
+    }
+
+    private int search(ChessGame.TeamColor side, int depth, int ply, int alpha, int beta) {
+        if (board.getHalfmoveClock() >= 100 || board.repetitions() > 0) {
+            return 0;
+        }
+        boolean inCheck = inCheck(side);
+        if (inCheck && ply < MAX_PLY / 2) {
+            ++depth;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(side, ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = side == ChessGame.TeamColor.BLACK ? board.getZobristKey() ^ Zobrist.SIDE : board.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0L) {
+            hashMove = TranspositionTable.move(entry);
+            // Only null-window nodes take cutoffs, so the principal variation is always searched
+            if (TranspositionTable.depth(entry) >= depth && beta - alpha == 1) {
+                int score = TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generate(board, side, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] scores = orderScores[ply];
+        scoreMoves(moves, scores, side, ply, hashMove);
+
+        ChessGame.TeamColor them = MoveGenerator.opponent(side);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = pickNext(moves, scores, i);
+            board.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(them, depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                score = -search(them, depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta && !aborted) {
+                    score = -search(them, depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                        rememberQuietCutoff(side, ply, move, depth);
+                    }
+                    break;
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, TranspositionTable.toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiescence(ChessGame.TeamColor side, int ply, int alpha, int beta) {
+        if (countNode()) {
+            return 0;
+        }
+        boolean inCheck = inCheck(side);
+        int best = -INFINITY;
+        if (!inCheck) {
+            // Standing pat: the side to move need not capture
+            best = Evaluator.evaluate(board, side);
+            if (best >= beta || ply >= MAX_PLY - 1) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generate(board, side, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(board, side);
+        }
+        int[] scores = orderScores[ply];
+        scoreMoves(moves, scores, side, ply, Move.NONE);
+
+        ChessGame.TeamColor them = MoveGenerator.opponent(side);
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = pickNext(moves, scores, i);
+            // Out of check every evasion is searched, otherwise only captures and promotions
+            if (!inCheck && !Move.isCapture(move) && !Move.isPromotion(move)) {
+                continue;
+            }
+            board.makeMove(move);
+            int score = -quiescence(them, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Counts a node and reports whether the search must stop
+    private boolean countNode() {
+        ++nodes;
+        if (canAbort && (nodes >= nodeLimit || ((nodes & (CHECK_INTERVAL - 1)) == 0
+                && (stopRequested.get() || System.nanoTime() >= deadline
+                || Thread.currentThread().isInterrupted())))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private boolean inCheck(ChessGame.TeamColor side) {
+        int king = board.bitboards().kingSquare(side);
+        return king >= 0 && board.isSquareAttacked(king, MoveGenerator.opponent(side));
+    }
+
+    private void scoreMoves(MoveList moves, int[] scores, ChessGame.TeamColor side, int ply, int previousBest) {
+        int[] colorHistory = history[side.ordinal()];
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+            int score;
+            if (move == previousBest) {
+                score = PREVIOUS_BEST;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                ChessPiece victim = Move.isEnPassant(move) ? null : board.pieceAt(Move.to(move));
+                int victimValue = victim == null ? (Move.isCapture(move) ? Evaluator.value(ChessPiece.PieceType.PAWN) : 0)
+                        : Evaluator.value(victim.getPieceType());
+                if (Move.isPromotion(move)) {
+                    victimValue += Evaluator.value(Move.promotion(move));
+                }
+                score = CAPTURE + victimValue * 16 - Evaluator.value(board.pieceAt(Move.from(move)).getPieceType()) / 16;
+            } else if (move == killers[ply][0]) {
+                score = KILLER + 1;
+            } else if (move == killers[ply][1]) {
+                score = KILLER;
+            } else {
+                score = colorHistory[Move.from(move) * 64 + Move.to(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    // Moves the best scored of the remaining moves to index and returns it
+    private static int pickNext(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); ++i) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves.get(index);
+    }
+
+    private void rememberQuietCutoff(ChessGame.TeamColor side, int ply, int move, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] colorHistory = history[side.ordinal()];
+        int index = Move.from(move) * 64 + Move.to(move);
+        colorHistory[index] = Math.min(colorHistory[index] + depth * depth, KILLER - 1);
+    }
+}
@@ -0,0 +1,30 @@
+package chess.engine;
+
+/**
+ * When a {@link Search} stops. Any limit of 0 is unbounded; the search stops at the
+ * first limit reached, and always finishes depth 1 so it has a move to return.
+ *
+ * @param timeMillis wall-clock time to think
+ * @param nodes      positions to visit, including quiescence
+ * @param depth      iterations of deepening
+ */
+public record SearchLimits(long timeMillis, long nodes, int depth) {
+
+    public SearchLimits {
+        if (timeMillis < 0 || nodes < 0 || depth < 0) {
+            throw new IllegalArgumentException("Search limits must not be negative");
+        }
+    }
+
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(millis, 0L, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0L, nodes, 0);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(0L, 0L, depth);
+    }
+}
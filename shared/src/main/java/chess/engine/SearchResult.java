@@ -0,0 +1,23 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a {@link Search}
+ *
+ * @param bestMove     the move chosen, or null if the side to move has no legal move
+ * @param score        the score of the move in centipawns for the side to move; scores
+ *                     beyond {@link Search#MATE_BOUND} mean a forced mate
+ * @param depth        the deepest iteration that finished
+ * @param nodes        positions visited, including quiescence
+ * @param elapsedNanos how long the search ran
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos) {
+
+    /**
+     * @return the search speed in positions per second
+     */
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0L : nodes * 1_000_000_000L / elapsedNanos;
+    }
+}
@@ -0,0 +1,100 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, shared without locks by every thread of a
+ * search. Each entry is two longs in one array: the position key XOR the data, and the
+ * data. A reader recomputes the key from both and ignores the entry if it does not
+ * match, so an entry torn by two threads writing at once reads as a miss rather than
+ * as wrong data.
+ * <p>
+ * The data packs the best move (bits 0-15), the score (16-31), the depth (32-39) and
+ * the bound type (40-41). The bound type is never 0, so empty slots read as a miss.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    /** The score is at least the stored score: the search failed high */
+    public static final int LOWER = 2;
+    /** The score is at most the stored score: the search failed low */
+    public static final int UPPER = 3;
+
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param megabytes the size of the table, rounded down to a power of two entries
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * (1L << 20);
+        int count = Integer.highestOneBit((int) Math.min(bytes / 16, 1 << 28));
+        entries = new long[count * 2];
+        mask = count - 1;
+    }
+
+    /**
+     * @return the data stored for the position, or 0 if there is none
+     */
+    public long probe(long key) {
+        int index = index(key);
+        long data = entries[index + 1];
+        return (entries[index] ^ data) == key ? data : 0L;
+    }
+
+    /**
+     * Stores a search result, replacing the entry in its slot unless that holds a deeper
+     * result for the same position
+     *
+     * @param score the score, with mates as distance from this position rather than the root
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = index(key);
+        long old = entries[index + 1];
+        if ((entries[index] ^ old) == key && depth(old) > depth && bound != EXACT) {
+            return;
+        }
+        long data = (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) Math.min(depth, 255) << 32)
+                | ((long) bound << 40);
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    /**
+     * @return the score with mates counted from the position at ply rather than the root
+     */
+    static int toTable(int score, int ply) {
+        return score >= Search.MATE_BOUND ? score + ply : score <= -Search.MATE_BOUND ? score - ply : score;
+    }
+
+    /**
+     * @return a table score with mates counted from the root again
+     */
+    static int fromTable(int score, int ply) {
+        return score >= Search.MATE_BOUND ? score - ply : score <= -Search.MATE_BOUND ? score + ply : score;
+    }
+
+    private int index(long key) {
+        return (int) (key & mask) << 1;
+    }
+}
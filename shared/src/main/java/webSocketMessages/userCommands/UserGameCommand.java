@@ -63,7 +63,9 @@ public class UserGameCommand {
         LEAVE,
         RESIGN,
         REDRAW,
-        HIGHLIGHT
+        HIGHLIGHT,
+        ADD_BOT,
+        ANALYZE
 
     }
 
@@ -0,0 +1,44 @@
+package chessTests;
+
+import chess.Analysis;
+import chess.ChessGame;
+import chess.Fen;
+import chess.Perft;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisTest {
+
+    @Test
+    public void analyze_KeepsOrderAndReportsStatus() {
+        List<String> fens = List.of(
+                Fen.START_POSITION,
+                "r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4",
+                "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1",
+                Perft.Reference.KIWIPETE.getFen(),
+                "not a fen");
+        List<Analysis> results = Analysis.analyze(fens.stream()).toList();
+
+        assertEquals(fens, results.stream().map(analysis -> analysis.fen().toString()).toList());
+        assertEquals(20, results.get(0).legalMoves());
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, results.get(0).status());
+        assertEquals(new ChessGame().positionKey(), results.get(0).key());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, results.get(1).status());
+        assertEquals(0, results.get(1).legalMoves());
+        assertEquals(ChessGame.GameStatus.STALEMATE, results.get(2).status());
+        assertEquals(48, results.get(3).legalMoves());
+        assertNull(results.get(4).status());
+        assertNotNull(results.get(4).error());
+    }
+
+    @Test
+    public void analyze_ManyPositions() {
+        long total = Analysis.analyze(Stream.generate(() -> Perft.Reference.POSITION_6.getFen()).limit(10_000))
+                .mapToLong(Analysis::legalMoves).sum();
+        assertEquals(460_000L, total);
+    }
+}
@@ -0,0 +1,58 @@
+package chessTests;
+
+import chess.Attacks;
+import chess.Bitboards;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttacksTest {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // Walks each ray square by square, stopping on the first occupied square
+    private static long walk(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int col = Bitboards.column(square) + direction[1];
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                long bit = Bitboards.bit(Bitboards.square(row, col));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    public void sliders_MatchRayWalkForRandomOccupancy() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; ++i) {
+            // Sparse and dense boards both, as magic index collisions show up in either
+            long occupied = (i & 1) == 0 ? random.nextLong() & random.nextLong() : random.nextLong() | random.nextLong();
+            for (int square = 0; square < Bitboards.SQUARES; ++square) {
+                long rook = walk(square, occupied, ROOK_DIRECTIONS);
+                long bishop = walk(square, occupied, BISHOP_DIRECTIONS);
+                assertEquals(rook, Attacks.rook(square, occupied), "rook on " + square);
+                assertEquals(bishop, Attacks.bishop(square, occupied), "bishop on " + square);
+                assertEquals(rook | bishop, Attacks.queen(square, occupied), "queen on " + square);
+            }
+        }
+    }
+
+    @Test
+    public void sliders_OnEmptyBoard() {
+        assertEquals(14, Long.bitCount(Attacks.rook(Bitboards.square(1, 1), 0L)));
+        assertEquals(7, Long.bitCount(Attacks.bishop(Bitboards.square(1, 1), 0L)));
+        assertEquals(13, Long.bitCount(Attacks.bishop(Bitboards.square(4, 4), 0L)));
+        assertEquals(27, Long.bitCount(Attacks.queen(Bitboards.square(4, 4), 0L)));
+    }
+}
@@ -0,0 +1,270 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessBoardTest {
+
+    private static void assertPieceListsMatch(ChessBoard board) {
+        Bitboards bitboards = board.bitboards();
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            long seen = 0L;
+            for (int i = 0; i < bitboards.pieceCount(color); ++i) {
+                seen |= Bitboards.bit(bitboards.pieceSquare(color, i));
+            }
+            assertEquals(bitboards.occupancy(color), seen);
+            assertEquals(Long.bitCount(seen), bitboards.pieceCount(color));
+
+            long kings = bitboards.pieces(color, ChessPiece.PieceType.KING);
+            assertEquals(kings == 0 ? -1 : Long.numberOfTrailingZeros(kings), bitboards.kingSquare(color));
+        }
+    }
+
+    private static void assertIndexMatchesSquares(ChessBoard board) {
+        Bitboards bitboards = board.bitboards();
+        for (int square = 0; square < Bitboards.SQUARES; ++square) {
+            ChessPiece piece = board.getPiece(ChessPosition.of(Bitboards.row(square), Bitboards.column(square)));
+            long bit = Bitboards.bit(square);
+            assertEquals(piece != null, (bitboards.occupied() & bit) != 0, "square " + square);
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                    boolean expected = piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+                    assertEquals(expected, (bitboards.pieces(color, type) & bit) != 0, "square " + square);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bitboards_MatchSquaresAfterAddAndMove() {
+        Random random = new Random(5);
+        ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 200; ++i) {
+            ChessPosition position = ChessPosition.of(random.nextInt(8) + 1, random.nextInt(8) + 1);
+            // Adding over an occupied square replaces the piece, and null clears it
+            ChessPiece piece = random.nextInt(5) == 0 ? null
+                    : ChessPiece.of(ChessGame.TeamColor.values()[random.nextInt(2)], types[random.nextInt(types.length)]);
+            board.addPiece(position, piece);
+            assertIndexMatchesSquares(board);
+        }
+
+        board.resetBoard();
+        assertIndexMatchesSquares(board);
+        board.movePiece(ChessMove.of(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        board.movePiece(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        assertIndexMatchesSquares(board);
+    }
+
+    @Test
+    public void bitboards_RebuiltAfterReadingJson() {
+        ChessBoard board = Fen.load(Perft.Reference.KIWIPETE.getFen()).getBoard();
+        Gson gson = new Gson();
+        ChessBoard read = gson.fromJson(gson.toJson(board), ChessBoard.class);
+        assertIndexMatchesSquares(read);
+        assertEquals(board.bitboards().key(), read.bitboards().key());
+        assertEquals(board, read);
+    }
+
+    @Test
+    public void pieceLists_TrackMakeAndUnmake() {
+        Random random = new Random(11);
+        for (int game = 0; game < 20; ++game) {
+            ChessBoard board = new ChessBoard();
+            board.resetBoard();
+            ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+            int played = 0;
+            for (; played < 120; ++played) {
+                List<ChessMove> moves = MoveGenerator.legalMoves(board, side);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                assertPieceListsMatch(board);
+                side = (side == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            }
+            for (; played > 0; --played) {
+                board.unmakeMove();
+                assertPieceListsMatch(board);
+            }
+        }
+    }
+
+    @Test
+    public void unmakeMove_RestoresRulesStateAndKey() {
+        Random random = new Random(17);
+        for (Perft.Reference reference : Perft.Reference.values()) {
+            ChessGame game = Fen.load(reference.getFen());
+            ChessBoard board = game.getBoard();
+            ChessGame.TeamColor side = game.getTeamTurn();
+            long[] keys = new long[60];
+            int[][] states = new int[60][];
+            String placement = board.toString();
+            int played = 0;
+            for (; played < keys.length; ++played) {
+                List<ChessMove> moves = MoveGenerator.legalMoves(board, side);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                keys[played] = board.getZobristKey();
+                states[played] = new int[]{board.getCastlingRights(), board.getEnPassantSquare(),
+                        board.getHalfmoveClock(), board.getFullmoveNumber()};
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                side = MoveGenerator.opponent(side);
+            }
+            while (played > 0) {
+                board.unmakeMove();
+                --played;
+                assertEquals(keys[played], board.getZobristKey(), reference + " ply " + played);
+                assertArrayEquals(states[played], new int[]{board.getCastlingRights(), board.getEnPassantSquare(),
+                        board.getHalfmoveClock(), board.getFullmoveNumber()}, reference + " ply " + played);
+            }
+            assertEquals(placement, board.toString());
+            assertEquals(reference.getFen(), game.toFen());
+        }
+    }
+
+    @Test
+    public void kingPosition_FollowsAddAndRemove() {
+        ChessBoard board = new ChessBoard();
+        assertNull(board.getKingPosition(ChessGame.TeamColor.BLACK));
+
+        ChessPiece king = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        board.addPiece(ChessPosition.of(6, 3), king);
+        assertEquals(ChessPosition.of(6, 3), board.getKingPosition(ChessGame.TeamColor.BLACK));
+        assertSame(king, board.getKingPiece(ChessGame.TeamColor.BLACK));
+
+        board.addPiece(ChessPosition.of(6, 3), null);
+        assertNull(board.getKingPosition(ChessGame.TeamColor.BLACK));
+        assertEquals(0, board.getPieces(ChessGame.TeamColor.BLACK).size());
+    }
+
+    @Test
+    public void isSquareAttacked_ByPieceType() {
+        ChessGame game = Fen.load("4k3/8/8/3p4/8/1N6/8/R3K3 w - - 0 1");
+        ChessBoard board = game.getBoard();
+        // Knight jump and rook ray
+        assertTrue(board.isSquareAttacked(ChessPosition.of(5, 3), ChessGame.TeamColor.WHITE));
+        assertTrue(board.isSquareAttacked(ChessPosition.of(7, 1), ChessGame.TeamColor.WHITE));
+        // The rook ray stops at its own king
+        assertFalse(board.isSquareAttacked(ChessPosition.of(1, 8), ChessGame.TeamColor.WHITE));
+        // Pawns attack diagonally forward, not straight ahead
+        assertTrue(board.isSquareAttacked(ChessPosition.of(4, 3), ChessGame.TeamColor.BLACK));
+        assertTrue(game.isSquareAttacked(ChessPosition.of(4, 5), ChessGame.TeamColor.BLACK));
+        assertFalse(board.isSquareAttacked(ChessPosition.of(4, 4), ChessGame.TeamColor.BLACK));
+        assertFalse(board.isSquareAttacked(ChessPosition.of(6, 3), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void isSquareAttacked_MatchesPieceMoves() {
+        ChessGame game = Fen.load("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        ChessBoard board = game.getBoard();
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            long attacked = 0L;
+            for (int square = 0; square < Bitboards.SQUARES; ++square) {
+                ChessPosition position = ChessPosition.of(Bitboards.row(square), Bitboards.column(square));
+                ChessPiece piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != color || piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                    continue;
+                }
+                for (ChessMove move : piece.pieceMoves(board, position)) {
+                    attacked |= Bitboards.bit(Bitboards.square(move.getEndPosition()));
+                }
+            }
+            for (int square = 0; square < Bitboards.SQUARES; ++square) {
+                ChessPosition position = ChessPosition.of(Bitboards.row(square), Bitboards.column(square));
+                ChessPiece piece = board.getPiece(position);
+                boolean ownPiece = piece != null && piece.getTeamColor() == color;
+                if ((attacked & Bitboards.bit(square)) != 0 && !ownPiece) {
+                    assertTrue(board.isSquareAttacked(position, color), position.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pieces_EqualByColorAndType() {
+        ChessPiece first = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        ChessPiece second = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first, ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+
+        ChessBoard built = new ChessBoard();
+        built.addPiece(ChessPosition.of(1, 1), first);
+        ChessBoard rebuilt = new ChessBoard();
+        rebuilt.addPiece(ChessPosition.of(1, 1), second);
+        assertEquals(built, rebuilt);
+    }
+
+    @Test
+    public void makeMove_PromotionReplacesPieceAndUnmakeRestoresIt() {
+        ChessBoard board = new ChessBoard();
+        ChessPiece pawn = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        board.addPiece(ChessPosition.of(7, 3), pawn);
+        board.makeMove(ChessMove.of(ChessPosition.of(7, 3), ChessPosition.of(8, 3), ChessPiece.PieceType.KNIGHT));
+
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT), board.getPiece(ChessPosition.of(8, 3)));
+        assertEquals(ChessPiece.PieceType.PAWN, pawn.getPieceType());
+
+        board.unmakeMove();
+        assertSame(pawn, board.getPiece(ChessPosition.of(7, 3)));
+        assertNull(board.getPiece(ChessPosition.of(8, 3)));
+        assertPieceListsMatch(board);
+    }
+
+    @Test
+    public void makeMove_CastlingMovesRookAndUnmakeRestoresState() {
+        ChessBoard board = Fen.load(Perft.Reference.KIWIPETE.getFen()).getBoard();
+        long key = board.getZobristKey();
+        board.makeMove(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null));
+
+        assertEquals(ChessPiece.PieceType.KING, board.getPiece(ChessPosition.of(1, 7)).getPieceType());
+        assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(ChessPosition.of(1, 6)).getPieceType());
+        assertNull(board.getPiece(ChessPosition.of(1, 8)));
+        assertEquals(ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE, board.getCastlingRights());
+        assertEquals(1, board.getHalfmoveClock());
+
+        board.unmakeMove();
+        assertEquals(ChessBoard.ALL_CASTLING, board.getCastlingRights());
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(key, board.getZobristKey());
+        assertEquals(Fen.load(Perft.Reference.KIWIPETE.getFen()).getBoard(), board);
+        assertPieceListsMatch(board);
+    }
+
+    @Test
+    public void makeMove_RookCaptureRemovesCastlingRight() {
+        ChessBoard board = Fen.load("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1").getBoard();
+        board.makeMove(ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null));
+        assertEquals(ChessBoard.WHITE_KINGSIDE | ChessBoard.BLACK_KINGSIDE, board.getCastlingRights());
+        assertEquals(0, board.getHalfmoveClock());
+    }
+
+    @Test
+    public void makeMove_EnPassantSquareOnlyWhenCapturable() {
+        ChessBoard board = new ChessGame().getBoard();
+        board.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals(-1, board.getEnPassantSquare());
+
+        board = Fen.load("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1").getBoard();
+        board.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals(Bitboards.square(3, 5), board.getEnPassantSquare());
+
+        board.makeMove(ChessMove.of(ChessPosition.of(4, 4), ChessPosition.of(3, 5), null));
+        assertNull(board.getPiece(ChessPosition.of(4, 5)));
+        assertEquals(-1, board.getEnPassantSquare());
+        board.unmakeMove();
+        assertEquals(ChessPiece.PieceType.PAWN, board.getPiece(ChessPosition.of(4, 5)).getPieceType());
+        assertEquals(Bitboards.square(3, 5), board.getEnPassantSquare());
+        assertPieceListsMatch(board);
+    }
+}
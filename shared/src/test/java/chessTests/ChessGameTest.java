@@ -0,0 +1,88 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+
+    @Test
+    public void tryMove_InvalidLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        assertSame(MoveResult.INVALID, game.tryMove(move(2, 5, 5, 5)));
+        assertSame(MoveResult.INVALID, game.tryMove(move(7, 5, 5, 5)));
+        assertSame(MoveResult.INVALID, game.tryMove(move(4, 4, 5, 4)));
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void tryMove_ReportsCaptureCheckAndCheckmate() {
+        ChessGame game = new ChessGame();
+        MoveResult result = game.tryMove(move(2, 5, 4, 5));
+        assertTrue(result.valid());
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, result.status());
+        assertNull(result.captured());
+        assertFalse(result.check());
+
+        game.tryMove(move(7, 5, 5, 5));
+        game.tryMove(move(1, 6, 4, 3));
+        game.tryMove(move(8, 2, 6, 3));
+        game.tryMove(move(1, 4, 5, 8));
+        game.tryMove(move(8, 7, 6, 6));
+        result = game.tryMove(move(5, 8, 7, 6));
+
+        assertTrue(result.valid());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, result.status());
+        assertTrue(result.check());
+        assertTrue(result.isGameOver());
+        assertEquals(ChessPiece.PieceType.PAWN, result.captured().getPieceType());
+        assertEquals(ChessGame.TeamColor.BLACK, result.captured().getTeamColor());
+    }
+
+    @Test
+    public void makeMove_DoesNotThrowOnCheckmate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(8, 4, 4, 8));
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(move(2, 1, 3, 1)));
+    }
+
+    @Test
+    public void tryMove_ThreefoldRepetitionIsDraw() {
+        ChessGame game = new ChessGame();
+        ChessMove[] shuffle = {move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7)};
+        for (int i = 0; i < 7; ++i) {
+            assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.tryMove(shuffle[i % 4]).status());
+        }
+        MoveResult result = game.tryMove(shuffle[3]);
+        assertEquals(ChessGame.GameStatus.DRAW, result.status());
+        assertTrue(result.isGameOver());
+    }
+
+    @Test
+    public void tryMove_FiftyMoveRuleIsDraw() {
+        ChessGame game = Fen.load("4k3/8/8/8/8/8/4P3/R3K3 w - - 98 80");
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.tryMove(move(1, 1, 2, 1)).status());
+        assertEquals(ChessGame.GameStatus.DRAW, game.tryMove(move(8, 5, 8, 4)).status());
+
+        game = Fen.load("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.tryMove(move(2, 5, 3, 5)).status());
+    }
+
+    @Test
+    public void tryMove_EnPassantReportsCapturedPawn() {
+        ChessGame game = Fen.load("4k3/8/8/3Pp3/8/8/8/4K3 w - e6 0 1");
+        MoveResult result = game.tryMove(move(5, 4, 6, 5));
+        assertTrue(result.valid());
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN), result.captured());
+        assertNull(game.getBoard().getPiece(ChessPosition.of(5, 5)));
+    }
+}
@@ -0,0 +1,68 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineTest {
+
+    @Test
+    public void table_StoresAndProbesEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        assertEquals(0L, table.probe(key));
+
+        int move = Move.of(12, 28, Move.DOUBLE_PAWN_PUSH);
+        table.store(key, move, -150, 7, TranspositionTable.LOWER);
+        long entry = table.probe(key);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-150, TranspositionTable.score(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        // Another key for the same slot misses rather than reading the entry
+        assertEquals(0L, table.probe(key ^ (1L << 40)));
+
+        table.store(key, Move.NONE, 10, 3, TranspositionTable.UPPER);
+        assertEquals(7, TranspositionTable.depth(table.probe(key)), "shallower bound kept the deeper entry");
+        table.clear();
+        assertEquals(0L, table.probe(key));
+    }
+
+    @Test
+    public void search_FindsMateInTwoOnSeveralThreads() {
+        ChessGame game = Fen.load("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        try (Engine engine = new Engine(4)) {
+            SearchResult result = engine.search(game, SearchLimits.depth(5), 4);
+            assertEquals(ChessMove.of(ChessPosition.of(6, 3), ChessPosition.of(6, 2), null), result.bestMove());
+            assertTrue(result.score() >= Search.MATE_BOUND, "score " + result.score());
+        }
+    }
+
+    @Test
+    public void search_HelpersStopWithMainSearch() {
+        ChessGame game = Fen.load(Perft.Reference.KIWIPETE.getFen());
+        String fen = game.toFen();
+        try (Engine engine = new Engine(4)) {
+            long start = System.nanoTime();
+            SearchResult result = engine.search(game, SearchLimits.time(200), 3);
+            assertTrue(System.nanoTime() - start < 3_000_000_000L);
+            assertNotNull(result.bestMove());
+            assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+            assertTrue(result.depth() >= 1);
+        }
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    public void search_SharedTableGivesSameAnswerAsSingleThread() {
+        ChessGame game = Fen.load("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        try (Engine engine = new Engine(1)) {
+            SearchResult single = engine.search(game, SearchLimits.depth(5), 1);
+            SearchResult parallel = engine.search(game, SearchLimits.depth(5), 4);
+            assertEquals(single.bestMove(), parallel.bestMove());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Engine(1).search(game, SearchLimits.depth(1), 0));
+    }
+}
@@ -0,0 +1,62 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.Evaluator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluatorTest {
+
+    @Test
+    public void evaluate_StartIsLevelAtFullPhase() {
+        ChessBoard board = new ChessGame().getBoard();
+        assertEquals(0, Evaluator.evaluate(board, ChessGame.TeamColor.WHITE));
+        assertEquals(PieceSquareTables.TOTAL_PHASE, board.bitboards().phase());
+    }
+
+    @Test
+    public void evaluate_MirroredPositionScoresTheSame() {
+        ChessGame game = Fen.load("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        ChessGame mirrored = Fen.load("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1");
+        assertEquals(Evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE),
+                Evaluator.evaluate(mirrored.getBoard(), ChessGame.TeamColor.BLACK));
+        assertEquals(-Evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE),
+                Evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void evaluate_UpdatedIncrementallyThroughMovesAndUndo() {
+        ChessGame game = Fen.load(Perft.Reference.KIWIPETE.getFen());
+        ChessBoard board = game.getBoard();
+        Bitboards bitboards = board.bitboards();
+        int middlegame = bitboards.middlegame();
+        int endgame = bitboards.endgame();
+        int phase = bitboards.phase();
+
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); ++i) {
+            board.makeMove(moves.get(i));
+            // A copy indexes its squares from scratch, so it must agree with the incrementally updated board
+            Bitboards fresh = new ChessBoard(board).bitboards();
+            assertEquals(fresh.middlegame(), bitboards.middlegame());
+            assertEquals(fresh.endgame(), bitboards.endgame());
+            assertEquals(fresh.phase(), bitboards.phase());
+            board.unmakeMove();
+        }
+        assertEquals(middlegame, bitboards.middlegame());
+        assertEquals(endgame, bitboards.endgame());
+        assertEquals(phase, bitboards.phase());
+    }
+
+    @Test
+    public void evaluate_TapersTowardsEndgame() {
+        // Kings and pawns only: the endgame tables alone decide, so the centralised
+        // king and the advanced pawn both count for white
+        ChessBoard endgame = Fen.load("8/8/3P4/8/3K4/8/8/k7 w - - 0 1").getBoard();
+        assertEquals(0, endgame.bitboards().phase());
+        assertEquals(endgame.bitboards().endgame(), Evaluator.evaluate(endgame, ChessGame.TeamColor.WHITE));
+        assertTrue(Evaluator.evaluate(endgame, ChessGame.TeamColor.WHITE) > 94 + 50);
+    }
+}
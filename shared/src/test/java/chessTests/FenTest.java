@@ -0,0 +1,67 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+
+    @ParameterizedTest
+    @EnumSource(Perft.Reference.class)
+    public void write_RoundTripsReferencePositions(Perft.Reference reference) {
+        ChessGame game = ChessGame.fromFen(reference.getFen());
+        assertEquals(reference.getFen(), game.toFen());
+        assertEquals(game.positionKey(), ChessGame.fromFen(game.toFen()).positionKey());
+    }
+
+    @Test
+    public void write_TracksMoveCounters() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(Fen.START_POSITION, game.toFen());
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(4, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        assertEquals("rnbqkb1r/ppp1pppp/5n2/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", game.toFen());
+    }
+
+    @Test
+    public void load_ReadsSliceOfByteBuffer() {
+        byte[] message = ("position " + Perft.Reference.KIWIPETE.getFen() + "\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.wrap(message, 9, message.length - 10);
+        ChessGame game = Fen.load(buffer);
+        assertEquals(Perft.Reference.KIWIPETE.getFen(), game.toFen());
+        assertEquals(9, buffer.position());
+    }
+
+    @Test
+    public void load_DefaultsMissingFields() {
+        ChessGame game = Fen.load("4k3/8/8/8/8/8/8/4K3 b");
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", game.toFen());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "4k3/8/8/8/8/8/3P4/4K3 w - e3 0 1",
+            "4k3/3p4/8/8/8/8/8/4K3 b - e6 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"})
+    public void load_RejectsMalformed(String fen) {
+        assertThrows(IllegalArgumentException.class, () -> Fen.load(fen));
+    }
+}
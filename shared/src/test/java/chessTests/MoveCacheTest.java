@@ -0,0 +1,60 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveCacheTest {
+
+    @Test
+    public void legalMoves_SecondLookupHits() {
+        MoveCache cache = new MoveCache(64, 4);
+        ChessGame game = new ChessGame();
+        ChessPosition knight = new ChessPosition(1, 2);
+
+        var first = cache.legalMoves(game.getBoard(), knight);
+        var second = cache.legalMoves(new ChessGame().getBoard(), knight);
+
+        assertEquals(2, first.size());
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void legalMoves_DifferentPositionsDoNotShareEntries() throws InvalidMoveException {
+        MoveCache cache = new MoveCache(64, 4);
+        ChessGame game = new ChessGame();
+        ChessPosition queen = new ChessPosition(1, 4);
+        assertTrue(cache.legalMoves(game.getBoard(), queen).isEmpty());
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        var moves = cache.legalMoves(game.getBoard(), queen);
+        assertEquals(4, moves.size());
+        assertEquals(new HashSet<>(game.legalMoves(queen)), new HashSet<>(moves));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void legalMoves_EmptySquareReturnsNull() {
+        MoveCache cache = new MoveCache(64, 4);
+        assertNull(cache.legalMoves(new ChessGame().getBoard(), new ChessPosition(4, 4)));
+    }
+
+    @Test
+    public void clear_ResetsCounters() {
+        MoveCache cache = new MoveCache(64, 4);
+        ChessBoard board = new ChessGame().getBoard();
+        cache.legalMoves(board, new ChessPosition(2, 1));
+        cache.legalMoves(board, new ChessPosition(2, 1));
+        cache.clear();
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        cache.legalMoves(board, new ChessPosition(2, 1));
+        assertEquals(1, cache.getMisses());
+    }
+}
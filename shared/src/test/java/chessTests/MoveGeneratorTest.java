@@ -0,0 +1,156 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveGeneratorTest {
+
+    // Castling and en passant come from the board's state, which pieceMoves does not know about
+    private static boolean isSpecial(ChessBoard board, ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        int columns = Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn());
+        return switch (piece.getPieceType()) {
+            case KING -> columns == 2;
+            case PAWN -> columns == 1 && board.getPiece(move.getEndPosition()) == null;
+            default -> false;
+        };
+    }
+
+    // Plays every pseudo-legal move and keeps those that leave the king safe
+    private static Set<ChessMove> bruteForceMoves(ChessGame game, ChessPosition position) {
+        ChessBoard board = game.getBoard();
+        ChessPiece piece = board.getPiece(position);
+        Set<ChessMove> moves = new HashSet<>();
+        for (ChessMove move : piece.pieceMoves(board, position)) {
+            board.makeMove(move);
+            if (!game.isInCheck(piece.getTeamColor())) {
+                moves.add(move);
+            }
+            board.unmakeMove();
+        }
+        return moves;
+    }
+
+    @Test
+    public void legalMoves_MatchBruteForce_RandomGames() {
+        Random random = new Random(240);
+        for (int gameNumber = 0; gameNumber < 100; ++gameNumber) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 120; ++ply) {
+                List<ChessMove> sideMoves = new ArrayList<>();
+                for (int row = 1; row <= 8; ++row) {
+                    for (int col = 1; col <= 8; ++col) {
+                        ChessPosition position = new ChessPosition(row, col);
+                        if (game.getBoard().getPiece(position) == null) {
+                            assertNull(game.legalMoves(position));
+                            continue;
+                        }
+                        var expected = bruteForceMoves(game, position);
+                        var actual = new HashSet<>(game.legalMoves(position));
+                        assertEquals(new HashSet<>(game.validMoves(position)), actual);
+                        ChessPiece piece = game.getBoard().getPiece(position);
+                        for (ChessMove move : actual) {
+                            if (isSpecial(game.getBoard(), move)) {
+                                game.getBoard().makeMove(move);
+                                assertFalse(game.isInCheck(piece.getTeamColor()), move + " leaves the king in check");
+                                game.getBoard().unmakeMove();
+                                expected.add(move);
+                            }
+                        }
+                        assertEquals(expected, actual, "Mismatch at " + position + " in\n" + game.getBoard());
+                        if (game.getBoard().getPiece(position).getTeamColor() == game.getTeamTurn()) {
+                            sideMoves.addAll(actual);
+                        }
+                    }
+                }
+                assertEquals(!sideMoves.isEmpty(), MoveGenerator.hasLegalMove(game.getBoard(), game.getTeamTurn()));
+                if (sideMoves.isEmpty()) {
+                    break;
+                }
+                game.getBoard().movePiece(sideMoves.get(random.nextInt(sideMoves.size())));
+                game.setTeamTurn(game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                        ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            }
+        }
+    }
+
+    @Test
+    public void legalMoves_PinnedPieceStaysOnLine() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        board.addPiece(new ChessPosition(6, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        var moves = game.legalMoves(new ChessPosition(3, 3));
+        assertEquals(Set.of(
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(2, 2), null),
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(4, 4), null),
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 5), null),
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(6, 6), null)), new HashSet<>(moves));
+    }
+
+    @Test
+    public void legalMoves_Castling() {
+        ChessGame game = Fen.load("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        ChessPosition king = new ChessPosition(1, 5);
+        assertTrue(game.legalMoves(king).contains(new ChessMove(king, new ChessPosition(1, 7), null)));
+        assertTrue(game.legalMoves(king).contains(new ChessMove(king, new ChessPosition(1, 3), null)));
+
+        // Rights already lost, crossing an attacked square, or a piece in the way
+        assertFalse(Fen.load("r3k2r/8/8/8/8/8/8/R3K2R w Qkq - 0 1").legalMoves(king)
+                .contains(new ChessMove(king, new ChessPosition(1, 7), null)));
+        assertFalse(Fen.load("r3k2r/8/8/8/8/8/5r2/R3K2R w KQkq - 0 1").legalMoves(king)
+                .contains(new ChessMove(king, new ChessPosition(1, 7), null)));
+        assertFalse(Fen.load("r3k2r/8/8/8/8/8/8/RN2K2R w KQkq - 0 1").legalMoves(king)
+                .contains(new ChessMove(king, new ChessPosition(1, 3), null)));
+        // The rook may pass an attacked square on the queen side
+        assertTrue(Fen.load("1r2k2r/8/8/8/8/8/8/R3K2R w KQk - 0 1").legalMoves(king)
+                .contains(new ChessMove(king, new ChessPosition(1, 3), null)));
+    }
+
+    @Test
+    public void legalMoves_EnPassantPinnedAlongRank() {
+        // Taking en passant would clear both pawns off the king's rank
+        ChessGame game = Fen.load("8/8/8/K2pP2r/8/8/8/7k w - d6 0 1");
+        ChessPosition pawn = new ChessPosition(5, 5);
+        assertEquals(Set.of(new ChessMove(pawn, new ChessPosition(6, 5), null)), new HashSet<>(game.legalMoves(pawn)));
+
+        game = Fen.load("8/8/8/3pP3/8/8/8/K6k w - d6 0 1");
+        assertTrue(game.legalMoves(pawn).contains(new ChessMove(pawn, new ChessPosition(6, 4), null)));
+    }
+
+    @Test
+    public void evaluateStatus_Checkmate() {
+        ChessGame game = Fen.load("r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4");
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.evaluateStatus());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+        assertFalse(game.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void evaluateStatus_Stalemate() {
+        ChessGame game = Fen.load("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertEquals(ChessGame.GameStatus.STALEMATE, game.evaluateStatus());
+        assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void evaluateStatus_CheckWithBlockingEscape() {
+        // Only a block gets out of check; the king itself has nowhere to go
+        ChessGame game = Fen.load("7k/8/8/8/8/1B6/5PPP/r5K1 w - - 0 1");
+        assertEquals(ChessGame.GameStatus.CHECK, game.evaluateStatus());
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, new ChessGame().evaluateStatus());
+    }
+}
@@ -0,0 +1,79 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveTest {
+
+    @Test
+    public void encoding_RoundTrips() {
+        for (int from = 0; from < 64; ++from) {
+            for (int to = 0; to < 64; to += 7) {
+                int move = Move.of(from, to, Move.CAPTURE | Move.PROMOTION | 3);
+                assertEquals(from, Move.from(move));
+                assertEquals(to, Move.to(move));
+                assertTrue(Move.isCapture(move));
+                assertEquals(ChessPiece.PieceType.QUEEN, Move.promotion(move));
+                assertEquals(0, move >>> 16);
+            }
+        }
+    }
+
+    @Test
+    public void fromChessMove_MatchesGenerator() {
+        ChessGame game = Fen.load("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(game.getBoard(), game.getTeamTurn(), moves);
+        assertFalse(moves.isEmpty());
+        for (int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+            assertEquals(move, Move.fromChessMove(game.getBoard(), Move.toChessMove(move)));
+        }
+    }
+
+    @Test
+    public void makeMove_PackedAndUnmakeRestoreBoard() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = game.getBoard();
+        ChessBoard original = new ChessBoard();
+        original.resetBoard();
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, ChessGame.TeamColor.WHITE, moves);
+        assertEquals(20, moves.size());
+        for (int i = 0; i < moves.size(); ++i) {
+            board.makeMove(moves.get(i));
+            assertNotEquals(original, board);
+            board.unmakeMove();
+            assertEquals(original, board);
+        }
+    }
+
+    @Test
+    public void of_ReturnsSharedInstances() {
+        assertSame(ChessPosition.of(4, 5), ChessPosition.of(4, 5));
+        assertEquals(new ChessPosition(4, 5), ChessPosition.of(4, 5));
+        assertEquals(new ChessPosition(4, 5).hashCode(), ChessPosition.of(4, 5).hashCode());
+
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.QUEEN);
+        assertSame(move, ChessMove.of(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN));
+        assertSame(ChessPosition.of(7, 2), move.getStartPosition());
+        assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN), move);
+        assertNotSame(move, ChessMove.of(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.ROOK));
+    }
+
+    @Test
+    public void of_OffBoardIsNotCached() {
+        assertNotSame(ChessPosition.of(0, 3), ChessPosition.of(0, 3));
+        assertEquals(ChessPosition.of(0, 3), ChessPosition.of(0, 3));
+    }
+
+    @Test
+    public void validMoves_UseSharedInstances() {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : game.legalMoves(ChessPosition.of(1, 2))) {
+            assertSame(ChessMove.of(move.getStartPosition(), move.getEndPosition(), null), move);
+        }
+    }
+}
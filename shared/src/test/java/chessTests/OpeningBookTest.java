@@ -0,0 +1,131 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.BookBuilder;
+import chess.engine.OpeningBook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String GAMES = """
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0
+
+            [Result "1-0"]
+
+            1. e4 c5 2. Nf3 d6 1-0
+
+            [Result "1/2-1/2"]
+
+            1. d4 d5 2. c4 e6 1/2-1/2
+
+            [Result "0-1"]
+
+            1. e4 e5 2. Ke2 Nc6 0-1
+
+            1. e4 e5 2. Nf3 Bad *
+            """;
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+
+    private static OpeningBook build(Path dir, int plies) throws IOException {
+        BookBuilder builder = new BookBuilder(plies);
+        assertEquals(4, builder.addAll(new PgnReader(new StringReader(GAMES))));
+        assertEquals(1, builder.skipped().size());
+        Path file = dir.resolve("book.bin");
+        builder.write(file);
+        assertEquals(builder.size() * 16L, Files.size(file));
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    public void bestMove_PrefersMoveThatWonMost() throws IOException {
+        OpeningBook book = build(tempDir, BookBuilder.DEFAULT_PLIES);
+        ChessGame start = new ChessGame();
+        // e4 won twice for 2 each and lost once for nothing; d4 drew once for 1
+        int entry = book.find(start.positionKey());
+        assertTrue(entry >= 0);
+        assertEquals(4, book.weight(entry));
+        assertEquals(move(2, 5, 4, 5), Move.toChessMove(book.bestMove(start)));
+        assertEquals(1, book.weight(entry + 1));
+        assertNotEquals(start.positionKey(), book.key(entry + 2));
+    }
+
+    @Test
+    public void find_MissesUnknownPositionsAndLosingMoves() throws IOException {
+        OpeningBook book = build(tempDir, BookBuilder.DEFAULT_PLIES);
+        assertEquals(-1, book.find(Fen.load(Perft.Reference.KIWIPETE.getFen()).positionKey()));
+        assertEquals(Move.NONE, book.bestMove(Fen.load(Perft.Reference.KIWIPETE.getFen())));
+        // After 1. e4 e5 2. Nf3 Nc6 only 3. Bb5 is known; 2. Ke2 lost so it was left out
+        ChessGame game = Fen.load("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        assertEquals(move(1, 6, 5, 2), Move.toChessMove(book.bestMove(game)));
+        ChessGame afterE5 = Fen.load("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2");
+        assertEquals(move(1, 7, 3, 6), Move.toChessMove(book.bestMove(afterE5)));
+    }
+
+    @Test
+    public void pick_ChoosesEveryWeightedMoveAndStopsAtPlyLimit() throws IOException {
+        OpeningBook book = build(tempDir, 2);
+        ChessGame start = new ChessGame();
+        Random random = new Random(42);
+        Set<ChessMove> picked = new HashSet<>();
+        for (int i = 0; i < 200; ++i) {
+            picked.add(Move.toChessMove(book.pick(start, random)));
+        }
+        assertEquals(Set.of(move(2, 5, 4, 5), move(2, 4, 4, 4)), picked);
+        ChessGame afterE5 = Fen.load("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2");
+        assertEquals(Move.NONE, book.pick(afterE5, random));
+    }
+
+    @Test
+    public void addAll_GameWithBadFenAddsNoEntries() throws IOException {
+        BookBuilder builder = new BookBuilder(BookBuilder.DEFAULT_PLIES);
+        String games = """
+                [FEN "not a position"]
+                [Result "1-0"]
+
+                1. d4 d5 2. c4 1-0
+                """;
+        assertEquals(0, builder.addAll(new PgnReader(new StringReader(games))));
+        assertEquals(0, builder.size());
+        assertEquals(1, builder.skipped().size());
+        assertTrue(builder.skipped().get(0).contains("FEN"), builder.skipped().get(0));
+    }
+
+    @Test
+    public void shared_IsEmptyWithoutProperty() {
+        assertSame(OpeningBook.shared(), OpeningBook.shared());
+        assertEquals(Move.NONE, OpeningBook.shared().bestMove(new ChessGame()));
+        assertNull(OpeningBook.shared().loadError());
+    }
+
+    @Test
+    public void openOrEmpty_ReportsWhyTheBookIsEmpty() throws IOException {
+        OpeningBook missing = OpeningBook.openOrEmpty(tempDir.resolve("missing.bin"));
+        assertEquals(0, missing.size());
+        assertTrue(missing.loadError().contains("missing.bin"), missing.loadError());
+
+        Path truncated = tempDir.resolve("truncated.bin");
+        Files.write(truncated, new byte[10]);
+        OpeningBook notABook = OpeningBook.openOrEmpty(truncated);
+        assertEquals(Move.NONE, notABook.bestMove(new ChessGame()));
+        assertTrue(notABook.loadError().contains("10 bytes"), notABook.loadError());
+    }
+}
@@ -0,0 +1,60 @@
+package chessTests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.Perft;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    // Keeps the regular test run quick; run Perft --suite for the deep counts
+    private static final long NODE_LIMIT = 250_000L;
+
+    @ParameterizedTest
+    @EnumSource(Perft.Reference.class)
+    public void perft_MatchesReferenceCounts(Perft.Reference reference) {
+        for (int depth = 1; depth <= reference.maxDepth() && reference.expectedNodes(depth) <= NODE_LIMIT; ++depth) {
+            ChessGame game = Fen.load(reference.getFen());
+            assertEquals(reference.expectedNodes(depth), Perft.perft(game, depth),
+                    reference + " at depth " + depth);
+        }
+    }
+
+    @Test
+    public void perft_LeavesBoardUnchanged() {
+        ChessGame game = Fen.load(Perft.Reference.POSITION_6.getFen());
+        ChessGame untouched = Fen.load(Perft.Reference.POSITION_6.getFen());
+        Perft.perft(game, 3);
+        assertEquals(untouched.getBoard(), game.getBoard());
+    }
+
+    @Test
+    public void divide_SumsToPerft() {
+        ChessGame game = new ChessGame();
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+        assertEquals(20, counts.size());
+        assertEquals(8_902L, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.Reference.class)
+    public void perftParallel_MatchesSequential(Perft.Reference reference) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ChessGame game = Fen.load(reference.getFen());
+            String fen = game.toFen();
+            assertEquals(reference.expectedNodes(3), Perft.perftParallel(game, 3, pool), reference.toString());
+            assertEquals(fen, game.toFen());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
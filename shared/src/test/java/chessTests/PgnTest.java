@@ -0,0 +1,131 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTest {
+
+    private static final String SCHOLARS_MATE = """
+            [Event "Casual"]
+            [Site "?"]
+            [White "Alice"]
+            [Black "Bob"]
+            [Result "1-0"]
+
+            1. e4 {the king's pawn} e5 2. Bc4 (2. Nf3 Nc6 {(a comment)} 3. Bb5) Nc6 $2
+            3. Qh5?! Nf6?? 4. Qxf7# 1-0
+            """;
+
+    @Test
+    public void san_RoundTripsEveryLegalMove() {
+        ChessGame game = Fen.load(Perft.Reference.KIWIPETE.getFen());
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(game.getBoard(), game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); ++i) {
+            String san = San.write(game.getBoard(), game.getTeamTurn(), moves.get(i));
+            assertEquals(moves.get(i), San.parse(game.getBoard(), game.getTeamTurn(), san), san);
+        }
+        assertEquals(Perft.Reference.KIWIPETE.getFen(), game.toFen());
+    }
+
+    @Test
+    public void san_DisambiguatesByFileThenRank() {
+        ChessGame game = Fen.load("7k/8/8/R7/8/8/8/R4R1K w - - 0 1");
+        ChessBoard board = game.getBoard();
+        int byFile = San.parse(board, ChessGame.TeamColor.WHITE, "Rad1");
+        assertEquals(Bitboards.square(1, 1), Move.from(byFile));
+        assertEquals("Rad1", San.write(board, ChessGame.TeamColor.WHITE, byFile));
+        int byRank = San.parse(board, ChessGame.TeamColor.WHITE, "R5a3");
+        assertEquals("R5a3", San.write(board, ChessGame.TeamColor.WHITE, byRank));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(board, ChessGame.TeamColor.WHITE, "Rd1"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(board, ChessGame.TeamColor.WHITE, "Rh8"));
+    }
+
+    @Test
+    public void read_SkipsCommentsAndVariations() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(SCHOLARS_MATE));
+        PgnGame game = reader.next();
+        assertNull(reader.next());
+
+        assertEquals("Alice", game.tags().get("White"));
+        assertEquals("1-0", game.result());
+        assertEquals(7, game.moves().size());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.game().evaluateStatus());
+        assertEquals("r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4", game.game().toFen());
+    }
+
+    @Test
+    public void read_AcceptsZeroCastling() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(
+                "1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. 0-0 d6 5.d3 Bg4 6.Nc3 Qd7 7.Be3 0-0-0 *\n"));
+        PgnGame game = reader.next();
+        assertNull(reader.next());
+        assertEquals(14, game.moves().size());
+        assertEquals("2kr2nr/pppq1ppp/2np4/2b1p3/2B1P1b1/2NPBN2/PPP2PPP/R2Q1RK1 w - - 5 8", game.game().toFen());
+    }
+
+    @Test
+    public void read_ContinuesAfterIllegalMove() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader("1. e4 e5 2. Ke3 Nc6 *\n\n1. d4 d5 1/2-1/2\n"));
+        assertThrows(IllegalArgumentException.class, reader::next);
+        PgnGame next = reader.next();
+        assertEquals(2, next.moves().size());
+        assertEquals("1/2-1/2", next.result());
+    }
+
+    @Test
+    public void read_SkipsGameWithBadFenOrTag() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader("""
+                [FEN "8/8/8 w - - 0 1"]
+
+                1. e4 e5 2. Nf3 *
+
+                [Event]
+                [White "Alice"]
+
+                1. d4 *
+
+                1. c4 c5 1-0
+                """));
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertThrows(IllegalArgumentException.class, reader::next);
+        PgnGame next = reader.next();
+        assertEquals(2, next.moves().size());
+        assertEquals("1-0", next.result());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void write_RoundTripsThroughReader() throws IOException {
+        PgnGame game = new PgnReader(new StringReader(SCHOLARS_MATE)).next();
+        StringWriter text = new StringWriter();
+        new PgnWriter(text).write(game.tags(), game.game(), game.result());
+
+        assertTrue(text.toString().startsWith("[Event \"Casual\"]\n[Site \"?\"]\n[Date \"????.??.??\"]\n"));
+        assertTrue(text.toString().contains("1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0"));
+        PgnGame read = new PgnReader(new StringReader(text.toString())).next();
+        assertEquals(game.moves(), read.moves());
+        assertEquals(game.game().toFen(), read.game().toFen());
+    }
+
+    @Test
+    public void write_StartsFromFenWithBlackToMove() throws IOException, InvalidMoveException {
+        ChessGame game = Fen.load("4k3/8/8/8/8/8/4P3/4K3 b - - 0 30");
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 5), ChessPosition.of(8, 4), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        StringWriter text = new StringWriter();
+        new PgnWriter(text).write(Map.of(), game, "*");
+
+        assertTrue(text.toString().contains("[FEN \"4k3/8/8/8/8/8/4P3/4K3 b - - 0 30\"]"));
+        assertTrue(text.toString().contains("30... Kd8 31. e4 *"));
+        PgnGame read = new PgnReader(new StringReader(text.toString())).next();
+        assertEquals(game.toFen(), read.game().toFen());
+    }
+}
@@ -0,0 +1,128 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+
+    @Test
+    public void snapshot_UnchangedByLaterMoves() {
+        ChessGame game = new ChessGame();
+        Position start = game.snapshot();
+        assertSame(start, game.snapshot());
+
+        game.tryMove(move(2, 5, 4, 5));
+        Position afterFirst = game.snapshot();
+        game.tryMove(move(7, 4, 5, 4));
+        game.tryMove(move(4, 5, 5, 4));
+
+        assertEquals(ChessPiece.PieceType.PAWN, start.getPiece(ChessPosition.of(2, 5)).getPieceType());
+        assertNull(start.getPiece(ChessPosition.of(4, 5)));
+        assertEquals(ChessGame.TeamColor.WHITE, start.getTeamTurn());
+        assertEquals(new ChessGame(), start.toGame());
+
+        assertNotNull(afterFirst.getPiece(ChessPosition.of(4, 5)));
+        assertEquals(ChessGame.TeamColor.BLACK, afterFirst.getTeamTurn());
+        assertNull(game.snapshot().getPiece(ChessPosition.of(4, 5)));
+    }
+
+    @Test
+    public void snapshot_MatchesGameAfterEachMove() {
+        ChessGame game = new ChessGame();
+        ChessMove[] moves = {move(2, 7, 3, 7), move(7, 5, 5, 5), move(1, 6, 2, 7), move(8, 4, 4, 8), move(1, 7, 3, 6)};
+        for (ChessMove next : moves) {
+            assertTrue(game.tryMove(next).valid());
+            Position snapshot = game.snapshot();
+            assertEquals(game, snapshot.toGame());
+            assertEquals(game.positionKey(), snapshot.getKey());
+        }
+    }
+
+    @Test
+    public void snapshot_RebuiltAfterBoardChangesOutsideTheGame() {
+        ChessGame game = new ChessGame();
+        game.snapshot();
+        game.getBoard().addPiece(ChessPosition.of(4, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        game.tryMove(move(2, 1, 3, 1));
+        assertEquals(game, game.snapshot().toGame());
+    }
+
+    @Test
+    public void snapshot_ReaderRacingWriterOnlySeesWholeMoves() throws InterruptedException {
+        ChessGame game = new ChessGame();
+        ChessMove[] shuffle = {move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7)};
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted() && failure.get() == null) {
+                Position position = game.snapshot();
+                ChessGame copy = position.toGame();
+                if (copy.positionKey() != position.getKey() || copy.getBoard().getPieces(ChessGame.TeamColor.WHITE).size() != 16) {
+                    failure.set("torn snapshot: " + copy.toFen());
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20_000; ++i) {
+            // A synchronized writer, like ConnectionManager.makeMove
+            synchronized (game) {
+                assertTrue(game.tryMove(shuffle[i & 3]).valid());
+            }
+        }
+        reader.interrupt();
+        reader.join();
+        assertNull(failure.get());
+        // The reader never replaced the writer's last snapshot with an older one
+        assertEquals(game.positionKey(), game.snapshot().getKey());
+        assertEquals(game, game.snapshot().toGame());
+    }
+
+    @Test
+    public void publishSnapshot_AfterReadingJson() {
+        ChessGame game = new ChessGame();
+        game.tryMove(move(2, 4, 4, 4));
+        Gson gson = new Gson();
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        read.publishSnapshot();
+        assertEquals(game.positionKey(), read.snapshot().getKey());
+    }
+
+    @Test
+    public void toGame_PublishesTheSnapshotOfTheCopy() {
+        ChessGame game = Fen.load("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 3 20");
+        ChessGame copy = game.snapshot().toGame();
+        assertEquals(game.positionKey(), copy.snapshot().getKey());
+        assertEquals(ChessGame.TeamColor.WHITE, copy.snapshot().getTeamTurn());
+        assertEquals(game, copy.snapshot().toGame());
+    }
+
+    @Test
+    public void toGame_SerializesLikeTheGame() {
+        ChessGame game = new ChessGame();
+        game.tryMove(move(2, 4, 4, 4));
+        Gson gson = new Gson();
+        assertEquals(gson.toJson(game), gson.toJson(game.snapshot().toGame()));
+    }
+
+    @Test
+    public void toGame_KeepsCastlingAndEnPassant() {
+        ChessGame game = Fen.load("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 3 20");
+        ChessGame copy = game.snapshot().toGame();
+        assertEquals(ChessBoard.WHITE_KINGSIDE | ChessBoard.BLACK_QUEENSIDE, copy.getBoard().getCastlingRights());
+        assertEquals(game.getBoard().getEnPassantSquare(), copy.getBoard().getEnPassantSquare());
+        assertEquals(3, copy.getBoard().getHalfmoveClock());
+        assertEquals(game.positionKey(), copy.positionKey());
+
+        Gson gson = new Gson();
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(game.positionKey(), read.positionKey());
+    }
+}
@@ -0,0 +1,84 @@
+package chessTests;
+
+import chess.*;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return ChessMove.of(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+
+    @Test
+    public void search_FindsMateInOne() {
+        ChessGame game = Fen.load("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        assertEquals(move(5, 8, 7, 6), result.bestMove());
+        assertTrue(result.score() >= Search.MATE_BOUND);
+    }
+
+    @Test
+    public void search_FindsMateInTwo() {
+        // 1. Kb6 Kb8 2. Rh8#; checking first with 1. Rh8+ lets the king out to a7
+        ChessGame game = Fen.load("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(5));
+        assertEquals(move(6, 3, 6, 2), result.bestMove());
+        assertTrue(result.score() >= Search.MATE_BOUND, "score " + result.score());
+    }
+
+    @Test
+    public void search_TakesHangingQueenAndLeavesGameUnchanged() {
+        ChessGame game = Fen.load("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        String fen = game.toFen();
+        SearchResult result = new Search().search(game, SearchLimits.depth(5));
+        assertEquals(move(2, 4, 5, 4), result.bestMove());
+        assertTrue(result.score() > 300);
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    public void search_StopsAtNodeLimit() {
+        ChessGame game = Fen.load(Perft.Reference.KIWIPETE.getFen());
+        SearchResult result = new Search().search(game, SearchLimits.nodes(20_000));
+        assertNotNull(result.bestMove());
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        assertTrue(result.depth() >= 1);
+        // Depth 1 always finishes, so a tiny budget may run over by that much
+        assertTrue(result.nodes() <= 20_000 || result.depth() == 1, "nodes " + result.nodes());
+        assertTrue(result.nodesPerSecond() > 0);
+    }
+
+    @Test
+    public void search_StopsAtTimeLimit() {
+        long start = System.nanoTime();
+        SearchResult result = new Search().search(new ChessGame(), SearchLimits.time(100));
+        assertNotNull(result.bestMove());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    }
+
+    @Test
+    public void stop_BeforeSearchEndsTheNextSearch() {
+        Search search = new Search();
+        search.stop();
+        long start = System.nanoTime();
+        SearchResult stopped = search.search(new ChessGame(), SearchLimits.time(60_000));
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        assertNotNull(stopped.bestMove());
+        assertEquals(1, stopped.depth());
+        // The stop was used up, so the next search is not cut short
+        assertEquals(3, search.search(new ChessGame(), SearchLimits.depth(3)).depth());
+    }
+
+    @Test
+    public void search_NoMoveWhenGameIsOver() {
+        ChessGame game = Fen.load("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        assertNull(result.bestMove());
+        assertEquals(0, result.score());
+    }
+}
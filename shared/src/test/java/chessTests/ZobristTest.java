@@ -0,0 +1,58 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    @Test
+    public void positionKey_TranspositionsMatch() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 2, 3, 3));
+        first.makeMove(move(8, 2, 6, 3));
+        first.makeMove(move(1, 7, 3, 6));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 2, 6, 3));
+        second.makeMove(move(1, 2, 3, 3));
+
+        assertEquals(first.positionKey(), second.positionKey());
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void positionKey_DependsOnSideToMove() {
+        ChessGame game = new ChessGame();
+        long whiteToMove = game.positionKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(whiteToMove, game.positionKey());
+        assertEquals(whiteToMove ^ Zobrist.SIDE, game.positionKey());
+    }
+
+    @Test
+    public void zobristKey_RestoredByUnmake() {
+        ChessGame game = Fen.load("r3k2r/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        ChessBoard board = game.getBoard();
+        long before = board.getZobristKey();
+        board.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        assertNotEquals(before, board.getZobristKey());
+        board.unmakeMove();
+        assertEquals(before, board.getZobristKey());
+    }
+
+    @Test
+    public void zobristKey_SurvivesSerialization() {
+        ChessGame game = Fen.load(Perft.Reference.POSITION_6.getFen());
+        ChessGame copy = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        assertEquals(game.positionKey(), copy.positionKey());
+    }
+}